@@ -36,6 +36,9 @@ import net.ess3.metrics.Metrics;
 import net.ess3.ranks.RanksStorage;
 import net.ess3.settings.SettingsHolder;
 import net.ess3.settings.SpawnsHolder;
+import net.ess3.storage.StorageObjectMap;
+import net.ess3.storage.StorageQueue;
+import net.ess3.timings.Timings;
 import net.ess3.user.UserMap;
 import net.ess3.utils.ExecuteTimer;
 import org.bukkit.Server;
@@ -75,6 +78,12 @@ public class Essentials implements IEssentials
 	@Getter
 	private transient EssentialsTimer timer;
 	@Getter
+	private transient TickMonitor tickMonitor;
+	@Getter
+	private final transient StorageQueue storageQueue;
+	@Getter
+	private final transient Timings timings;
+	@Getter
 	private transient List<String> vanishedPlayers = new ArrayList<String>();
 
 	public Essentials(final Server server, final Logger logger, final IPlugin plugin)
@@ -82,6 +91,8 @@ public class Essentials implements IEssentials
 		this.server = server;
 		this.logger = logger;
 		this.plugin = plugin;
+		this.storageQueue = new StorageQueue(this);
+		this.timings = new Timings(this);
 		this.i18n = new I18n(this);
 		i18n.onEnable();
 	}
@@ -131,6 +142,8 @@ public class Essentials implements IEssentials
 		reloadList = new ArrayList<IReload>();
 		settings = new SettingsHolder(this);
 		reloadList.add(settings);
+		reloadList.add(storageQueue);
+		storageQueue.start();
 		execTimer.mark("Settings");
 		//upgrade.afterSettings();
 		//execTimer.mark("Upgrade2");
@@ -166,7 +179,9 @@ public class Essentials implements IEssentials
 
 
 		timer = new EssentialsTimer(this);
-		getPlugin().scheduleSyncRepeatingTask(timer, 1, 100);
+		getPlugin().scheduleSyncRepeatingTask(timer, 1, 1);
+		tickMonitor = new TickMonitor();
+		getPlugin().scheduleSyncRepeatingTask(tickMonitor, 1, 1);
 		execTimer.mark("RegListeners");
 
 		final String timeroutput = execTimer.end();
@@ -190,6 +205,14 @@ public class Essentials implements IEssentials
 		}
 		i18n.onDisable();
 		Trade.closeLog();
+		storageQueue.flushAll();
+		for (IReload iReload : reloadList)
+		{
+			if (iReload instanceof StorageObjectMap)
+			{
+				((StorageObjectMap<?>)iReload).writeIndex();
+			}
+		}
 	}
 
 	@Override
@@ -1,112 +1,307 @@
 package net.ess3;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import net.ess3.api.IEssentials;
-import net.ess3.api.ISettings;
 import net.ess3.api.IUser;
 import net.ess3.permissions.Permissions;
+import net.ess3.user.Ban;
+import net.ess3.user.UserData;
 import net.ess3.user.UserData.TimestampType;
 import org.bukkit.entity.Player;
 
 
+/**
+ * Runs every tick and spreads the per player work over a cycle of {@link #SHARDS} ticks.
+ *
+ * Every player has a fixed slot in the cycle derived from the name, so each player is still checked every five seconds,
+ * but only a part of them in one tick. The players of each slot are kept in a list that is updated on join and quit.
+ * Players that don't fit into the time budget of a tick are left for the next one.
+ * Mute, jail and ban timeouts are not polled, they are kept in a queue ordered by the time they expire.
+ */
 public class EssentialsTimer implements Runnable
 {
+	private static final int SHARDS = 100;
+	private static final long TICK_BUDGET = TimeUnit.MILLISECONDS.toNanos(2);
 	private final transient IEssentials ess;
 	private final transient Set<IUser> onlineUsers = new HashSet<IUser>();
-	private transient long lastPoll = System.currentTimeMillis();
-	private final transient LinkedList<Float> history = new LinkedList<Float>();
+	private final transient List<List<Player>> slots = new ArrayList<List<Player>>(SHARDS);
+	private final transient Set<Player> pending = new LinkedHashSet<Player>();
+	private final transient PriorityQueue<Expiry> expiries = new PriorityQueue<Expiry>();
+	private final transient Set<Expiry> scheduled = new HashSet<Expiry>();
+	private transient int tick = 0;
+
+
+	private enum ExpiryType
+	{
+		MUTE, JAIL, BAN
+	}
+
+
+	private static final class Expiry implements Comparable<Expiry>
+	{
+		private final transient long time;
+		private final transient String userName;
+		private final transient ExpiryType type;
+
+		public Expiry(final long time, final String userName, final ExpiryType type)
+		{
+			this.time = time;
+			this.userName = userName;
+			this.type = type;
+		}
+
+		@Override
+		public int compareTo(final Expiry other)
+		{
+			return time < other.time ? -1 : (time == other.time ? 0 : 1);
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (!(obj instanceof Expiry))
+			{
+				return false;
+			}
+			final Expiry other = (Expiry)obj;
+			return time == other.time && type == other.type && userName.equals(other.userName);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (int)(time ^ (time >>> 32)) * 31 + userName.hashCode() * 7 + type.hashCode();
+		}
+	}
 
 	EssentialsTimer(final IEssentials ess)
 	{
 		this.ess = ess;
+		for (int i = 0; i < SHARDS; i++)
+		{
+			slots.add(new ArrayList<Player>());
+		}
+		// Players that were online before a reload
+		for (Player player : ess.getServer().getOnlinePlayers())
+		{
+			addPlayer(player);
+		}
+	}
+
+	/**
+	 * Has to be called from the main thread, when the player joins.
+	 *
+	 * @param player
+	 */
+	public void addPlayer(final Player player)
+	{
+		final List<Player> players = slots.get(getSlot(player));
+		if (!players.contains(player))
+		{
+			players.add(player);
+		}
+	}
+
+	/**
+	 * Has to be called from the main thread, when the player quits.
+	 *
+	 * @param player
+	 */
+	public void removePlayer(final Player player)
+	{
+		slots.get(getSlot(player)).remove(player);
+		pending.remove(player);
 	}
 
 	@Override
 	public void run()
 	{
 		final long currentTime = System.currentTimeMillis();
-		long timeSpent = (currentTime - lastPoll) / 1000;
-		if (timeSpent == 0)
+		final int slot = tick;
+		tick = (tick + 1) % SHARDS;
+		if (slot == 0)
 		{
-			timeSpent = 1;
+			checkLogouts(currentTime);
 		}
-		if (history.size() > 10)
+		pending.addAll(slots.get(slot));
+		final long start = System.nanoTime();
+		while (!pending.isEmpty())
 		{
-			history.remove();
-		}
-		final float tps = 100f / timeSpent;
-		if (tps <= 20)
-		{
-			history.add(tps);
+			// A new iterator every time, the check might kick the player and remove it from the set
+			final Iterator<Player> iterator = pending.iterator();
+			final Player player = iterator.next();
+			iterator.remove();
+			if (player.isOnline())
+			{
+				checkPlayer(player, currentTime);
+			}
+			if (System.nanoTime() - start > TICK_BUDGET)
+			{
+				break;
+			}
 		}
-		lastPoll = currentTime;
-		for (Player player : ess.getServer().getOnlinePlayers())
+		checkExpiries(currentTime);
+	}
+
+	private static int getSlot(final Player player)
+	{
+		return (player.getName().hashCode() & Integer.MAX_VALUE) % SHARDS;
+	}
+
+	private void checkPlayer(final Player player, final long currentTime)
+	{
+		try
 		{
+			final IUser user = ess.getUserMap().getUser(player);
+			if (user == null)
+			{
+				return;
+			}
+			if (onlineUsers.add(user))
+			{
+				// Players that were online before a reload
+				watchExpiry(user);
+			}
+			user.setLastOnlineActivity(currentTime);
+			user.checkActivity();
+			user.resetInvulnerabilityAfterTeleport();
 
-			try
+			final boolean mailDisabled = ess.getSettings().getSnapshot().getCommands().isDisabled("mail");
+			// New mail notification
+			if (!mailDisabled && Permissions.MAIL.isAuthorized(user) && !user.gotMailInfo())
 			{
-				final IUser user = ess.getUserMap().getUser(player);
-				if (user == null) {
-					continue;
-				}
-				onlineUsers.add(user);
-				user.setLastOnlineActivity(currentTime);
-				user.checkActivity();
-
-				boolean mailDisabled = false;
-				ISettings settings = ess.getSettings();
-				settings.acquireReadLock();
-				try
+				final List<String> mail = user.getMails();
+				if (mail != null && !mail.isEmpty())
 				{
-					mailDisabled = settings.getData().getCommands().isDisabled("mail");
+					user.sendMessage(I18n._("youHaveNewMail", mail.size()));
 				}
-				finally
-				{
-					settings.unlock();
-				}
-				// New mail notification
-				if (!mailDisabled && Permissions.MAIL.isAuthorized(user) && !user.gotMailInfo())
+			}
+		}
+		catch (Exception e)
+		{
+			ess.getLogger().log(Level.WARNING, "EssentialsTimer Error:", e);
+		}
+	}
+
+	private void checkLogouts(final long currentTime)
+	{
+		final Iterator<IUser> iterator = onlineUsers.iterator();
+		while (iterator.hasNext())
+		{
+			final IUser user = iterator.next();
+			if (user.isOnline())
+			{
+				continue;
+			}
+			if (user.getLastOnlineActivity() < currentTime && user.getLastOnlineActivity() > user.getTimestamp(TimestampType.LOGOUT))
+			{
+				user.setTimestamp(TimestampType.LOGOUT, user.getLastOnlineActivity());
+			}
+			iterator.remove();
+		}
+	}
+
+	private void checkExpiries(final long currentTime)
+	{
+		while (true)
+		{
+			final Expiry expiry;
+			synchronized (expiries)
+			{
+				if (expiries.isEmpty() || expiries.peek().time >= currentTime)
 				{
-					final List<String> mail = user.getMails();
-					if (mail != null && !mail.isEmpty())
-					{
-						user.sendMessage(I18n._("youHaveNewMail", mail.size()));
-					}
+					return;
 				}
+				expiry = expiries.poll();
+				scheduled.remove(expiry);
+			}
+			try
+			{
+				checkExpiry(expiry, currentTime);
 			}
 			catch (Exception e)
 			{
 				ess.getLogger().log(Level.WARNING, "EssentialsTimer Error:", e);
 			}
 		}
+	}
 
-		final Iterator<IUser> iterator = onlineUsers.iterator();
-		while (iterator.hasNext())
+	private void checkExpiry(final Expiry expiry, final long currentTime)
+	{
+		final IUser user = ess.getUserMap().getUser(expiry.userName);
+		if (user == null)
 		{
-			final IUser user = iterator.next();
-			if (user.getLastOnlineActivity() < currentTime && user.getLastOnlineActivity() > user.getTimestamp(TimestampType.LOGOUT))
+			return;
+		}
+		// If the timeout was changed, the old entry finds nothing to do and the new one is already queued.
+		switch (expiry.type)
+		{
+		case MUTE:
+			// Offline users are checked on login
+			if (user.isOnline())
 			{
-				user.setTimestamp(TimestampType.LOGOUT, user.getLastOnlineActivity());
-				iterator.remove();
-				continue;
+				user.checkMuteTimeout(currentTime);
 			}
-			user.checkMuteTimeout(currentTime);
-			user.checkJailTimeout(currentTime);
-			user.resetInvulnerabilityAfterTeleport();
+			break;
+		case JAIL:
+			if (user.isOnline())
+			{
+				user.checkJailTimeout(currentTime);
+			}
+			break;
+		case BAN:
+			user.checkBanTimeout(currentTime);
+			break;
 		}
 	}
 
-	public float getAverageTPS()
+	/**
+	 * Queues the mute, jail and ban timeouts of the user, so they are lifted when they expire.
+	 * Has to be called after one of these timeouts has been changed.
+	 * The data is read without taking the lock, so this can be called while the caller holds the write lock.
+	 *
+	 * @param user
+	 */
+	public void watchExpiry(final IUser user)
 	{
-		float avg = 0;
-		for (Float f : history)
+		final UserData data = user.getData();
+		if (data.isMuted())
+		{
+			schedule(getTimestamp(data, TimestampType.MUTE), user.getName(), ExpiryType.MUTE);
+		}
+		if (data.isJailed())
+		{
+			schedule(getTimestamp(data, TimestampType.JAIL), user.getName(), ExpiryType.JAIL);
+		}
+		final Ban ban = data.getBan();
+		if (ban != null)
+		{
+			schedule(ban.getTimeout(), user.getName(), ExpiryType.BAN);
+		}
+	}
+
+	private static long getTimestamp(final UserData data, final TimestampType type)
+	{
+		final Map<TimestampType, Long> timestamps = data.getTimestamps();
+		final Long timestamp = timestamps == null ? null : timestamps.get(type);
+		return timestamp == null ? 0 : timestamp;
+	}
+
+	private void schedule(final long time, final String userName, final ExpiryType type)
+	{
+		if (time <= 0)
+		{
+			return;
+		}
+		final Expiry expiry = new Expiry(time, userName, type);
+		synchronized (expiries)
 		{
-			if (f != null)
+			if (scheduled.add(expiry))
 			{
-				avg += f;
+				expiries.add(expiry);
 			}
 		}
-		return avg / history.size();
 	}
 }
@@ -5,12 +5,12 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Pattern;
-import lombok.Cleanup;
 import static net.ess3.I18n._;
 import net.ess3.api.IEssentials;
 import net.ess3.api.IItemDb;
 import net.ess3.api.IUser;
 import net.ess3.permissions.Permissions;
+import net.ess3.settings.Settings;
 import net.ess3.storage.ManagedFile;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
@@ -66,11 +66,9 @@ public class ItemDb implements IItemDb
 	{
 		final ItemStack stack = get(id.toLowerCase(Locale.ENGLISH));
 
-		@Cleanup
-		net.ess3.api.ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
+		final Settings settings = ess.getSettings().getSnapshot();
 
-		final int defaultStackSize = settings.getData().getGeneral().getDefaultStacksize();
+		final int defaultStackSize = settings.getGeneral().getDefaultStacksize();
 
 		if (defaultStackSize > 0)
 		{
@@ -78,7 +76,7 @@ public class ItemDb implements IItemDb
 		}
 		else
 		{
-			final int oversizedStackSize = settings.getData().getGeneral().getOversizedStacksize();
+			final int oversizedStackSize = settings.getGeneral().getOversizedStacksize();
 			if (oversizedStackSize > 0 && Permissions.OVERSIZEDSTACKS.isAuthorized(user))
 			{
 				stack.setAmount(oversizedStackSize);
@@ -10,6 +10,7 @@ import net.ess3.api.IEssentials;
 import net.ess3.api.IJails;
 import net.ess3.api.IUser;
 import net.ess3.storage.AsyncStorageObjectHolder;
+import net.ess3.storage.StorageFormat;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.event.EventHandler;
@@ -23,7 +24,6 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
-import org.bukkit.plugin.PluginManager;
 
 
 public class Jails extends AsyncStorageObjectHolder<net.ess3.settings.Jails> implements IJails
@@ -39,11 +39,10 @@ public class Jails extends AsyncStorageObjectHolder<net.ess3.settings.Jails> imp
 
 	private void registerListeners()
 	{
-		final PluginManager pluginManager = ess.getServer().getPluginManager();
 		final JailBlockListener blockListener = new JailBlockListener();
 		final JailPlayerListener playerListener = new JailPlayerListener();
-		pluginManager.registerEvents(blockListener, ess.getPlugin());
-		pluginManager.registerEvents(playerListener, ess.getPlugin());
+		ess.getTimings().registerEvents(blockListener, ess.getPlugin());
+		ess.getTimings().registerEvents(playerListener, ess.getPlugin());
 	}
 
 	@Override
@@ -52,6 +51,12 @@ public class Jails extends AsyncStorageObjectHolder<net.ess3.settings.Jails> imp
 		return new File(ess.getPlugin().getDataFolder(), "jail.yml");
 	}
 
+	@Override
+	public StorageFormat getStorageFormat()
+	{
+		return ess.getSettings().getStorageFormat();
+	}
+
 	@Override
 	public Location getJail(final String jailName) throws Exception
 	{
@@ -0,0 +1,134 @@
+package net.ess3;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the time between two server ticks with nanosecond precision.
+ *
+ * The last {@link #HISTORY} tick times are kept in a ring buffer for percentiles. The 1, 5 and 15 minute averages are
+ * moving averages weighted by time, like the unix load average, so they don't need the full history.
+ */
+public class TickMonitor implements Runnable
+{
+	public static final int HISTORY = 1200;
+	private static final long[] WINDOWS =
+	{
+		TimeUnit.MINUTES.toNanos(1), TimeUnit.MINUTES.toNanos(5), TimeUnit.MINUTES.toNanos(15)
+	};
+	private final transient long[] ticks = new long[HISTORY];
+	private transient int next = 0;
+	private transient int count = 0;
+	private transient long lastTick = 0;
+	private final transient double[] averages = new double[WINDOWS.length];
+	private transient long worstTick = 0;
+	private transient long worstTickTime = 0;
+
+	@Override
+	public void run()
+	{
+		final long now = System.nanoTime();
+		if (lastTick != 0)
+		{
+			record(now - lastTick);
+		}
+		lastTick = now;
+	}
+
+	private synchronized void record(final long tickTime)
+	{
+		ticks[next] = tickTime;
+		next = (next + 1) % HISTORY;
+		if (count < HISTORY)
+		{
+			count++;
+		}
+		for (int i = 0; i < WINDOWS.length; i++)
+		{
+			if (averages[i] == 0)
+			{
+				averages[i] = tickTime;
+			}
+			else
+			{
+				final double weight = 1 - Math.exp(-(double)tickTime / WINDOWS[i]);
+				averages[i] += (tickTime - averages[i]) * weight;
+			}
+		}
+		if (tickTime > worstTick)
+		{
+			worstTick = tickTime;
+			worstTickTime = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * @param minutes 1, 5 or 15
+	 * @return ticks per second, at most 20
+	 */
+	public synchronized double getAverageTPS(final int minutes)
+	{
+		final double average;
+		switch (minutes)
+		{
+		case 1:
+			average = averages[0];
+			break;
+		case 5:
+			average = averages[1];
+			break;
+		case 15:
+			average = averages[2];
+			break;
+		default:
+			throw new IllegalArgumentException("Only 1, 5 and 15 minute averages are available");
+		}
+		if (average == 0)
+		{
+			return 20;
+		}
+		return Math.min(20, TimeUnit.SECONDS.toNanos(1) / average);
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return tick time in milliseconds over the last {@link #HISTORY} ticks
+	 */
+	public double getPercentile(final double percentile)
+	{
+		final long[] sorted;
+		synchronized (this)
+		{
+			if (count == 0)
+			{
+				return 0;
+			}
+			sorted = Arrays.copyOf(ticks, count);
+		}
+		Arrays.sort(sorted);
+		final int index = (int)Math.ceil(percentile / 100 * sorted.length) - 1;
+		return toMillis(sorted[Math.max(0, Math.min(sorted.length - 1, index))]);
+	}
+
+	/**
+	 * @return the longest tick since the start in milliseconds
+	 */
+	public synchronized double getWorstTick()
+	{
+		return toMillis(worstTick);
+	}
+
+	/**
+	 * @return when the longest tick ended, 0 if there was no tick yet
+	 */
+	public synchronized long getWorstTickTime()
+	{
+		return worstTickTime;
+	}
+
+	private static double toMillis(final long nanos)
+	{
+		return nanos / 1000000.0;
+	}
+}
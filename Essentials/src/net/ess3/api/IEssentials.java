@@ -3,8 +3,11 @@ package net.ess3.api;
 import java.util.List;
 import java.util.logging.Logger;
 import net.ess3.EssentialsTimer;
+import net.ess3.TickMonitor;
 import net.ess3.economy.register.Methods;
 import net.ess3.metrics.Metrics;
+import net.ess3.storage.StorageQueue;
+import net.ess3.timings.Timings;
 import org.bukkit.Server;
 import org.bukkit.World;
 
@@ -63,6 +66,12 @@ public interface IEssentials extends IComponent
 	List<String> getVanishedPlayers();
 	
 	EssentialsTimer getTimer();
+
+	TickMonitor getTickMonitor();
+
+	Timings getTimings();
+
+	StorageQueue getStorageQueue();
 	
 	Metrics getMetrics();
 	
@@ -22,4 +22,16 @@ public interface IRanks
 	int getHomeLimit(IUser player);
 
 	MessageFormat getChatFormat(IUser player);
+
+	/**
+	 * Forgets the cached ranks of the player, has to be called if the permissions of the player changed.
+	 *
+	 * @param player
+	 */
+	void invalidateCache(IUser player);
+
+	/**
+	 * Forgets all cached ranks and chat formats.
+	 */
+	void invalidateCache();
 }
@@ -2,6 +2,7 @@ package net.ess3.api;
 
 import net.ess3.settings.Settings;
 import net.ess3.storage.IStorageObjectHolder;
+import net.ess3.storage.StorageFormat;
 
 
 public interface ISettings extends IStorageObjectHolder<Settings>
@@ -11,4 +12,6 @@ public interface ISettings extends IStorageObjectHolder<Settings>
 	public boolean isDebug();
 
 	public void setDebug(boolean b);
+
+	public StorageFormat getStorageFormat();
 }
@@ -1,5 +1,6 @@
 package net.ess3.api;
 
+import com.google.common.cache.CacheStats;
 import java.io.File;
 import java.util.Set;
 import net.ess3.user.PlayerNotFoundException;
@@ -22,6 +23,43 @@ public interface IUserMap extends IReload
 	int getUniqueUsers();
 
 	File getUserFile(final String name) throws InvalidNameException;
+
+	/**
+	 * Keeps the user in memory until {@link #unpinUser(IUser)} is called, used for online players.
+	 *
+	 * @param user
+	 */
+	void pinUser(final IUser user);
+
+	void unpinUser(final IUser user);
+
+	/**
+	 * Updates the nickname index used by {@link #matchUsers(String, boolean, boolean)}, has to be called after the nickname of an online user changed.
+	 *
+	 * @param user
+	 */
+	void updateNickname(final IUser user);
+
+	/**
+	 * Updates the index used by {@link #getIgnoringPlayers(IUser)}, has to be called after the ignore list of an online user changed.
+	 *
+	 * @param user
+	 */
+	void updateIgnoredPlayers(final IUser user);
+
+	/**
+	 * Returns the online players, that ignore the sender.
+	 *
+	 * @param sender
+	 * @return
+	 */
+	Set<Player> getIgnoringPlayers(final IUser sender);
+
+	int getPinnedUsers();
+
+	CacheStats getCacheStats();
+
+	int getCacheSize();
 	
 	/**
 	 * This method never returns null.
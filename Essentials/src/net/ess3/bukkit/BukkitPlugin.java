@@ -77,17 +77,17 @@ public class BukkitPlugin extends JavaPlugin implements IPlugin
 		}
 		
 		final EssentialsPluginListener serverListener = new EssentialsPluginListener(ess);
-		pm.registerEvents(serverListener, this);
+		ess.getTimings().registerEvents(serverListener, this);
 		ess.addReloadListener(serverListener);
 
 		final EssentialsPlayerListener playerListener = new EssentialsPlayerListener(ess);
-		pm.registerEvents(playerListener, this);
+		ess.getTimings().registerEvents(playerListener, this);
 
 		final EssentialsBlockListener blockListener = new EssentialsBlockListener(ess);
-		pm.registerEvents(blockListener, this);
+		ess.getTimings().registerEvents(blockListener, this);
 
 		final EssentialsEntityListener entityListener = new EssentialsEntityListener(ess);
-		pm.registerEvents(entityListener, this);
+		ess.getTimings().registerEvents(entityListener, this);
 
 		
 		final MetricsStarter metricsStarter = new MetricsStarter(ess);
@@ -1,7 +1,12 @@
 package net.ess3.commands;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import static net.ess3.I18n._;
+import net.ess3.timings.Timing;
+import net.ess3.timings.Timings;
+import net.ess3.utils.DateUtil;
 import org.bukkit.command.CommandSender;
 
 
@@ -20,6 +25,10 @@ public class Commandessentials extends EssentialsCommand
 		{
 			run_debug(sender, args);
 		}
+		else if (args[0].equalsIgnoreCase("timings"))
+		{
+			run_timings(sender, args);
+		}
 		else
 		{
 			run_reload(sender, args);
@@ -29,7 +38,7 @@ public class Commandessentials extends EssentialsCommand
 	private void run_disabled(final CommandSender sender, final String[] args) throws Exception
 	{
 		sender.sendMessage("Essentials " + ess.getPlugin().getVersion());
-		sender.sendMessage("/<command> <reload/debug>");
+		sender.sendMessage("/<command> <reload/debug/timings>");
 		sender.sendMessage(_("blockList"));
 		final StringBuilder disabledCommands = new StringBuilder();
 		for (Map.Entry<String, String> entry : ess.getCommandHandler().disabledCommands().entrySet())
@@ -49,6 +58,36 @@ public class Commandessentials extends EssentialsCommand
 		sender.sendMessage("Essentials " + ess.getPlugin().getVersion() + " debug mode " + (ess.getSettings().isDebug() ? "enabled" : "disabled"));
 	}
 
+	private void run_timings(final CommandSender sender, final String[] args) throws Exception
+	{
+		final Timings timings = ess.getTimings();
+		if (args.length > 1 && (args[1].equalsIgnoreCase("on") || args[1].equalsIgnoreCase("off")))
+		{
+			timings.setEnabled(args[1].equalsIgnoreCase("on"));
+			sender.sendMessage("Essentials timings " + (timings.isEnabled() ? "enabled" : "disabled"));
+			return;
+		}
+		if (args.length > 1 && args[1].equalsIgnoreCase("reset"))
+		{
+			timings.reset();
+			sender.sendMessage("Essentials timings reset");
+			return;
+		}
+		if (args.length > 1 && args[1].equalsIgnoreCase("dump"))
+		{
+			sender.sendMessage("Essentials timings written to " + timings.dump().getName());
+			return;
+		}
+		sender.sendMessage("/<command> timings <on/off/reset/dump>");
+		sender.sendMessage("Essentials timings " + (timings.isEnabled() ? "enabled" : "disabled") + ", recorded for " + DateUtil.formatDateDiff(timings.getSince()));
+		final List<Timing> list = timings.getTimings();
+		for (Timing timing : list.subList(0, Math.min(10, list.size())))
+		{
+			sender.sendMessage(String.format(Locale.ENGLISH, "%s: %d calls, %.1f ms total, %.3f ms average, %.3f ms max",
+											 timing.getName(), timing.getCount(), timing.getTotal(), timing.getAverage(), timing.getMax()));
+		}
+	}
+
 	private void run_reload(final CommandSender sender, final String[] args) throws Exception
 	{
 		ess.reload();
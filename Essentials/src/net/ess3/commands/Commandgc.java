@@ -1,6 +1,10 @@
 package net.ess3.commands;
 
+import com.google.common.cache.CacheStats;
+import java.util.Locale;
 import static net.ess3.I18n._;
+import net.ess3.TickMonitor;
+import net.ess3.utils.DateUtil;
 import org.bukkit.ChatColor;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
@@ -13,7 +17,8 @@ public class Commandgc extends EssentialsCommand
 	@Override
 	protected void run(final CommandSender sender, final String commandLabel, final String[] args) throws Exception
 	{
-		float tps = ess.getTimer().getAverageTPS();
+		final TickMonitor monitor = ess.getTickMonitor();
+		final double tps = monitor.getAverageTPS(1);
 		ChatColor color;
 		if (tps >= 18)
 		{
@@ -27,10 +32,19 @@ public class Commandgc extends EssentialsCommand
 		{
 			color = ChatColor.RED;
 		}
-		sender.sendMessage(_("tps", "" + color + tps));
+		sender.sendMessage(_("tps", "" + color + format(tps)));
+		sender.sendMessage(_("gctickaverage", format(tps), format(monitor.getAverageTPS(5)), format(monitor.getAverageTPS(15))));
+		sender.sendMessage(_("gcticktimes", format(monitor.getPercentile(50)), format(monitor.getPercentile(95)), format(monitor.getPercentile(99))));
+		if (monitor.getWorstTickTime() > 0)
+		{
+			sender.sendMessage(_("gcworsttick", format(monitor.getWorstTick()), DateUtil.formatDateDiff(monitor.getWorstTickTime())));
+		}
 		sender.sendMessage(_("gcmax", (Runtime.getRuntime().maxMemory() / 1024 / 1024)));
 		sender.sendMessage(_("gctotal", (Runtime.getRuntime().totalMemory() / 1024 / 1024)));
 		sender.sendMessage(_("gcfree", (Runtime.getRuntime().freeMemory() / 1024 / 1024)));
+		final CacheStats stats = ess.getUserMap().getCacheStats();
+		sender.sendMessage(_("gcusercache", ess.getUserMap().getCacheSize(), ess.getUserMap().getPinnedUsers(),
+							 Math.round(stats.hitRate() * 100), stats.evictionCount(), Math.round(stats.averageLoadPenalty() / 1000000)));
 
 		for (World w : server.getWorlds())
 		{
@@ -51,4 +65,9 @@ public class Commandgc extends EssentialsCommand
 					+ w.getEntities().size() + _("gcentities"));
 		}
 	}
+
+	private static String format(final double value)
+	{
+		return String.format(Locale.ENGLISH, "%.2f", value);
+	}
 }
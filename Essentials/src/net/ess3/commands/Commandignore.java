@@ -1,6 +1,8 @@
 package net.ess3.commands;
 
 import static net.ess3.I18n._;
+import java.util.Locale;
+import java.util.Set;
 import net.ess3.api.IUser;
 
 
@@ -14,9 +16,20 @@ public class Commandignore extends EssentialsCommand
 			throw new NotEnoughArgumentsException();
 		}
 		IUser player = ess.getUserMap().matchUser(args[0], false, false);
-		
-		user.acquireWriteLock();
-		if (user.isIgnoringPlayer(player))
+
+		// Not isIgnoringPlayer, exempt players would never be removed from the list
+		final boolean ignoring;
+		user.acquireReadLock();
+		try
+		{
+			final Set<String> ignore = user.getData().getIgnore();
+			ignoring = ignore != null && ignore.contains(player.getName().toLowerCase(Locale.ENGLISH));
+		}
+		finally
+		{
+			user.unlock();
+		}
+		if (ignoring)
 		{
 			user.setIgnoredPlayer(player, false);
 			user.sendMessage(_("unignorePlayer", player.getName()));
@@ -26,5 +39,6 @@ public class Commandignore extends EssentialsCommand
 			user.setIgnoredPlayer(player, true);
 			user.sendMessage(_("ignorePlayer", player.getName()));
 		}
+		ess.getUserMap().updateIgnoredPlayers(user);
 	}
 }
@@ -38,6 +38,7 @@ public class Commandmute extends EssentialsCommand
 			player.setMuted(!player.getData().isMuted());
 		}
 		player.setTimestamp(TimestampType.MUTE, muteTimestamp);
+		ess.getTimer().watchExpiry(player);
 		final boolean muted = player.getData().isMuted();
 		sender.sendMessage(
 				muted
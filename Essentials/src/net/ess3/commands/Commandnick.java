@@ -103,6 +103,7 @@ public class Commandnick extends EssentialsCommand
 		{
 			target.getData().setNickname(null);
 			target.updateDisplayName();
+			ess.getUserMap().updateNickname(target);
 			target.sendMessage(_("nickNoMore"));
 		}
 		else
@@ -124,6 +125,7 @@ public class Commandnick extends EssentialsCommand
 
 			target.getData().setNickname(nick);
 			target.updateDisplayName();
+			ess.getUserMap().updateNickname(target);
 			target.sendMessage(_("nickSet", target.getPlayer().getDisplayName() + "§7."));
 		}
 	}
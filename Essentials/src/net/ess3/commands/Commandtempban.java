@@ -45,6 +45,7 @@ public class Commandtempban extends EssentialsCommand
 		user.getData().getBan().setReason(banReason);
 		user.getData().getBan().setTimeout(banTimestamp);
 		user.setBanned(true);
+		ess.getTimer().watchExpiry(user);
 		user.getPlayer().kickPlayer(banReason);
 		final String senderName = sender instanceof Player ? ((Player)sender).getDisplayName() : Console.NAME;
 
@@ -60,6 +60,7 @@ public class Commandtogglejail extends EssentialsCommand
 				final String time = getFinalArg(args, 2);
 				timeDiff = DateUtil.parseDateDiff(time, true);
 				player.setTimestamp(TimestampType.JAIL, timeDiff);
+				ess.getTimer().watchExpiry(player);
 			}
 			sender.sendMessage((timeDiff > 0
 								? _("playerJailedFor", player.getName(), DateUtil.formatDateDiff(timeDiff))
@@ -79,6 +80,7 @@ public class Commandtogglejail extends EssentialsCommand
 			final long timeDiff = DateUtil.parseDateDiff(time, true);
 			player.acquireWriteLock();
 			player.setTimestamp(TimestampType.JAIL, timeDiff);
+			ess.getTimer().watchExpiry(player);
 			sender.sendMessage(_("jailSentenceExtended", DateUtil.formatDateDiff(timeDiff)));
 			return;
 		}
@@ -142,6 +142,7 @@ public class EssentialsCommandHandler implements ICommandHandler
 			}
 
 			// Run the command
+			final long start = System.nanoTime();
 			try
 			{
 				if (user == null)
@@ -182,6 +183,10 @@ public class EssentialsCommandHandler implements ICommandHandler
 				showCommandError(sender, commandLabel, ex);
 				return true;
 			}
+			finally
+			{
+				ess.getTimings().record(cmd.getClass().getSimpleName(), start);
+			}
 		}
 		catch (Throwable ex)
 		{
@@ -1,23 +1,16 @@
 package net.ess3.economy;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.DateFormat;
-import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import lombok.Cleanup;
 import static net.ess3.I18n._;
 import net.ess3.api.ChargeException;
 import net.ess3.api.IEssentials;
-import net.ess3.api.ISettings;
 import net.ess3.api.IUser;
 import net.ess3.craftbukkit.InventoryWorkaround;
 import net.ess3.permissions.NoCommandCostPermissions;
 import net.ess3.permissions.Permissions;
+import net.ess3.settings.Settings;
 import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
 
@@ -82,9 +75,7 @@ public class Trade
 			throw new ChargeException(_("missingItems", getItemStack().getAmount(), getItemStack().getType().toString().toLowerCase(Locale.ENGLISH).replace("_", " ")));
 		}
 
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
+		final Settings settings = ess.getSettings().getSnapshot();
 
 		double money;
 		if (command != null && !command.isEmpty()
@@ -174,10 +165,8 @@ public class Trade
 		if (command != null && !command.isEmpty()
 			&& !NoCommandCostPermissions.getPermission(command).isAuthorized(user))
 		{
-			@Cleanup
-			final ISettings settings = ess.getSettings();
-			settings.acquireReadLock();
-			final double cost = settings.getData().getEconomy().getCommandCost(command.charAt(0) == '/' ? command.substring(1) : command);
+			final Settings settings = ess.getSettings().getSnapshot();
+			final double cost = settings.getEconomy().getCommandCost(command.charAt(0) == '/' ? command.substring(1) : command);
 			if (!user.canAfford(cost) && cost > 0)
 			{
 				throw new ChargeException(_("notEnoughMoney"));
@@ -217,39 +206,26 @@ public class Trade
 			&& !NoCommandCostPermissions.getPermission("all").isAuthorized(user)
 			&& !NoCommandCostPermissions.getPermission(command).isAuthorized(user))
 		{
-			cost = ess.getSettings().getData().getEconomy().getCommandCost(command.charAt(0) == '/' ? command.substring(1) : command);
+			cost = ess.getSettings().getSnapshot().getEconomy().getCommandCost(command.charAt(0) == '/' ? command.substring(1) : command);
 			if (cost == 0.0 && fallbackCommand != null && !fallbackCommand.isEmpty())
 			{
-				cost = ess.getSettings().getData().getEconomy().getCommandCost(fallbackCommand.charAt(0) == '/' ? fallbackCommand.substring(1) : fallbackCommand);
+				cost = ess.getSettings().getSnapshot().getEconomy().getCommandCost(fallbackCommand.charAt(0) == '/' ? fallbackCommand.substring(1) : fallbackCommand);
 			}
 		}
 		return cost;
 	}
-	private static FileWriter fw = null;
+	private static TradeLog tradeLog = null;
 
 	public static void log(String type, String subtype, String event, String sender, Trade charge, String receiver, Trade pay, Location loc, IEssentials ess)
 	{
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
-		if (!settings.getData().getEconomy().isLogEnabled())
+		final Settings settings = ess.getSettings().getSnapshot();
+		if (!settings.getEconomy().isLogEnabled())
 		{
 			return;
 		}
-		if (fw == null)
-		{
-			try
-			{
-				fw = new FileWriter(new File(ess.getPlugin().getDataFolder(), "trade.log"), true);
-			}
-			catch (IOException ex)
-			{
-				Logger.getLogger("Minecraft").log(Level.SEVERE, null, ex);
-			}
-		}
+		final long time = System.currentTimeMillis();
+		final String head = type + "," + subtype + "," + event + ",\"";
 		StringBuilder sb = new StringBuilder();
-		sb.append(type).append(",").append(subtype).append(",").append(event).append(",\"");
-		sb.append(DateFormat.getDateTimeInstance(DateFormat.FULL, DateFormat.FULL).format(new Date()));
 		sb.append("\",\"");
 		if (sender != null)
 		{
@@ -272,7 +248,7 @@ public class Trade
 			{
 				sb.append(charge.getMoney()).append(",");
 				sb.append("money").append(",");
-				sb.append(settings.getData().getEconomy().getCurrencySymbol());
+				sb.append(settings.getEconomy().getCurrencySymbol());
 			}
 			if (charge.getExperience() != null)
 			{
@@ -303,7 +279,7 @@ public class Trade
 			{
 				sb.append(pay.getMoney()).append(",");
 				sb.append("money").append(",");
-				sb.append(settings.getData().getEconomy().getCurrencySymbol());
+				sb.append(settings.getEconomy().getCurrencySymbol());
 			}
 			if (pay.getExperience() != null)
 			{
@@ -325,30 +301,24 @@ public class Trade
 			sb.append(loc.getBlockZ()).append(",");
 		}
 		sb.append("\n");
-		try
-		{
-			fw.write(sb.toString());
-			fw.flush();
-		}
-		catch (IOException ex)
+		getTradeLog(settings, ess).log(time, head, sb.toString());
+	}
+
+	private static synchronized TradeLog getTradeLog(final Settings settings, final IEssentials ess)
+	{
+		if (tradeLog == null)
 		{
-			Logger.getLogger("Minecraft").log(Level.SEVERE, null, ex);
+			tradeLog = new TradeLog(new File(ess.getPlugin().getDataFolder(), "trade.log"), settings.getEconomy());
 		}
+		return tradeLog;
 	}
 
-	public static void closeLog()
+	public static synchronized void closeLog()
 	{
-		if (fw != null)
+		if (tradeLog != null)
 		{
-			try
-			{
-				fw.close();
-			}
-			catch (IOException ex)
-			{
-				Logger.getLogger("Minecraft").log(Level.SEVERE, null, ex);
-			}
-			fw = null;
+			tradeLog.close();
+			tradeLog = null;
 		}
 	}
 }
@@ -0,0 +1,278 @@
+package net.ess3.economy;
+
+import java.io.*;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import net.ess3.settings.Economy;
+
+
+/**
+ * Writes the trade log in its own thread.
+ *
+ * Callers only put the line into a bounded queue, lines that don't fit are dropped and counted instead of blocking
+ * the main thread. The writer takes the queued lines in batches, and flushes once a second or when the queue is
+ * empty. The log is rotated by size or by day, the old logs can be compressed.
+ */
+public class TradeLog implements Runnable
+{
+	private static final Logger LOGGER = Logger.getLogger("Minecraft");
+	private static final int CAPACITY = 10000;
+	private static final int BATCH = 1000;
+	private static final long FLUSH_INTERVAL = 1000;
+	private final transient File file;
+	private final transient long maxSize;
+	private final transient boolean rotateDaily;
+	private final transient boolean compress;
+	private final transient BlockingQueue<Entry> queue = new ArrayBlockingQueue<Entry>(CAPACITY);
+	private final transient AtomicInteger dropped = new AtomicInteger();
+	private final transient Thread thread;
+	private volatile transient boolean closed = false;
+	private final transient DateFormat dateFormat = DateFormat.getDateTimeInstance(DateFormat.FULL, DateFormat.FULL);
+	private final transient SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+	private transient Writer writer;
+	private transient long size;
+	private transient String day;
+	private transient long lastFlush;
+
+
+	private static final class Entry
+	{
+		private final transient long time;
+		private final transient String head;
+		private final transient String tail;
+
+		public Entry(final long time, final String head, final String tail)
+		{
+			this.time = time;
+			this.head = head;
+			this.tail = tail;
+		}
+	}
+
+	public TradeLog(final File file, final Economy settings)
+	{
+		this.file = file;
+		this.maxSize = Math.max(0, settings.getLogMaxSize()) * 1024L * 1024L;
+		this.rotateDaily = settings.isLogRotateDaily();
+		this.compress = settings.isLogCompress();
+		thread = new Thread(this, "Essentials trade log");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Queues one line, the date is formatted by the writer.
+	 *
+	 * @param time when the trade happened
+	 * @param head the text before the date
+	 * @param tail the text after the date, including the line break
+	 */
+	public void log(final long time, final String head, final String tail)
+	{
+		if (closed || !queue.offer(new Entry(time, head, tail)))
+		{
+			dropped.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void run()
+	{
+		final List<Entry> batch = new ArrayList<Entry>(BATCH);
+		while (true)
+		{
+			final Entry first;
+			try
+			{
+				first = closed ? queue.poll() : queue.poll(FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex)
+			{
+				continue;
+			}
+			if (first == null)
+			{
+				if (closed)
+				{
+					break;
+				}
+				flush();
+				continue;
+			}
+			batch.add(first);
+			queue.drainTo(batch, BATCH - 1);
+			try
+			{
+				for (Entry entry : batch)
+				{
+					write(entry);
+				}
+			}
+			catch (IOException ex)
+			{
+				LOGGER.log(Level.SEVERE, "Can't write the trade log", ex);
+				closeWriter();
+			}
+			batch.clear();
+			if (queue.isEmpty() || System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL)
+			{
+				flush();
+			}
+		}
+		closeWriter();
+	}
+
+	private void write(final Entry entry) throws IOException
+	{
+		final String entryDay = dayFormat.format(new Date(entry.time));
+		if (writer == null)
+		{
+			open(entryDay);
+		}
+		if ((rotateDaily && !entryDay.equals(day)) || (maxSize > 0 && size >= maxSize))
+		{
+			rotate();
+			open(entryDay);
+			// Counted from here, in case the old log couldn't be moved
+			day = entryDay;
+			size = 0;
+		}
+		final String line = entry.head + dateFormat.format(new Date(entry.time)) + entry.tail;
+		writer.write(line);
+		size += line.length();
+	}
+
+	private void open(final String today) throws IOException
+	{
+		writer = new BufferedWriter(new FileWriter(file, true));
+		size = file.length();
+		day = size > 0 ? dayFormat.format(new Date(file.lastModified())) : today;
+	}
+
+	private void rotate() throws IOException
+	{
+		closeWriter();
+		if (!file.exists() || file.length() == 0)
+		{
+			return;
+		}
+		File target;
+		int count = 0;
+		do
+		{
+			count++;
+			target = new File(file.getParentFile(), "trade-" + day + "-" + count + ".log");
+		}
+		while (target.exists() || new File(target.getPath() + ".gz").exists());
+		if (!file.renameTo(target))
+		{
+			LOGGER.log(Level.WARNING, "Can''t rename {0} to {1}", new Object[]
+					{
+						file.getName(), target.getName()
+					});
+			return;
+		}
+		if (compress)
+		{
+			compress(target);
+		}
+	}
+
+	private static void compress(final File source) throws IOException
+	{
+		final File target = new File(source.getPath() + ".gz");
+		final InputStream input = new FileInputStream(source);
+		try
+		{
+			final OutputStream output = new GZIPOutputStream(new FileOutputStream(target));
+			try
+			{
+				final byte[] buffer = new byte[8192];
+				int length;
+				while ((length = input.read(buffer)) > 0)
+				{
+					output.write(buffer, 0, length);
+				}
+			}
+			finally
+			{
+				output.close();
+			}
+		}
+		finally
+		{
+			input.close();
+		}
+		if (!source.delete())
+		{
+			LOGGER.log(Level.WARNING, "Can''t delete {0}", source.getName());
+		}
+	}
+
+	private void flush()
+	{
+		lastFlush = System.currentTimeMillis();
+		final int lost = dropped.getAndSet(0);
+		if (lost > 0)
+		{
+			LOGGER.log(Level.WARNING, "The trade log queue was full, {0} lines were not logged", lost);
+		}
+		if (writer == null)
+		{
+			return;
+		}
+		try
+		{
+			writer.flush();
+		}
+		catch (IOException ex)
+		{
+			LOGGER.log(Level.SEVERE, "Can't write the trade log", ex);
+			closeWriter();
+		}
+	}
+
+	private void closeWriter()
+	{
+		if (writer == null)
+		{
+			return;
+		}
+		try
+		{
+			writer.close();
+		}
+		catch (IOException ex)
+		{
+			LOGGER.log(Level.SEVERE, "Can't close the trade log", ex);
+		}
+		writer = null;
+	}
+
+	/**
+	 * Writes the queued lines and stops the writer thread.
+	 */
+	public void close()
+	{
+		closed = true;
+		thread.interrupt();
+		try
+		{
+			thread.join(TimeUnit.SECONDS.toMillis(10));
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -2,17 +2,17 @@ package net.ess3.listener;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import lombok.Cleanup;
 import static net.ess3.I18n._;
 import net.ess3.api.IEssentials;
-import net.ess3.api.ISettings;
 import net.ess3.api.IUser;
 import net.ess3.permissions.Permissions;
+import net.ess3.settings.Settings;
 import net.ess3.user.UserData.TimestampType;
 import net.ess3.utils.LocationUtil;
 import net.ess3.utils.textreader.IText;
@@ -69,14 +69,10 @@ public class EssentialsPlayerListener implements Listener
 			user.sendMessage(_("playerMuted"));
 			LOGGER.info(_("mutedUserSpeaks", user.getName()));
 		}
-		final Iterator<Player> it = event.getRecipients().iterator();
-		while (it.hasNext())
+		final Set<Player> ignoring = ess.getUserMap().getIgnoringPlayers(user);
+		if (!ignoring.isEmpty())
 		{
-			final IUser player = ess.getUserMap().getUser(it.next());
-			if (player.isIgnoringPlayer(user))
-			{
-				it.remove();
-			}
+			event.getRecipients().removeAll(ignoring);
 		}
 		user.updateActivity(true);
 		user.updateDisplayName();
@@ -88,11 +84,9 @@ public class EssentialsPlayerListener implements Listener
 		@Cleanup
 		final IUser user = ess.getUserMap().getUser(event.getPlayer());
 		user.acquireReadLock();
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
+		final Settings settings = ess.getSettings().getSnapshot();
 
-		if (user.getData().isAfk() && settings.getData().getCommands().getAfk().isFreezeAFKPlayers())
+		if (user.getData().isAfk() && settings.getCommands().getAfk().isFreezeAFKPlayers())
 		{
 			final Location from = event.getFrom();
 			final Location to = event.getTo().clone();
@@ -123,10 +117,8 @@ public class EssentialsPlayerListener implements Listener
 		@Cleanup
 		final IUser user = ess.getUserMap().getUser(event.getPlayer());
 		user.acquireReadLock();
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
-		if (settings.getData().getCommands().getGod().isRemoveOnDisconnect() && user.isGodModeEnabled())
+		final Settings settings = ess.getSettings().getSnapshot();
+		if (settings.getCommands().getGod().isRemoveOnDisconnect() && user.isGodModeEnabled())
 		{
 			user.setGodModeEnabled(false);
 		}
@@ -140,6 +132,9 @@ public class EssentialsPlayerListener implements Listener
 			user.getData().setInventory(null);
 		}
 		user.updateActivity(false);
+		ess.getRanks().invalidateCache(user);
+		ess.getUserMap().unpinUser(user);
+		ess.getTimer().removePlayer(event.getPlayer());
 		//user.getPlayer().dispose();
 	}
 
@@ -153,6 +148,9 @@ public class EssentialsPlayerListener implements Listener
 		ess.getBackup().startTask();
 		@Cleanup
 		final IUser user = ess.getUserMap().getUser(event.getPlayer());
+		ess.getUserMap().pinUser(user);
+		ess.getTimer().addPlayer(event.getPlayer());
+		ess.getRanks().invalidateCache(user);
 		user.acquireWriteLock();
 
 		user.updateDisplayName();
@@ -172,11 +170,9 @@ public class EssentialsPlayerListener implements Listener
 			user.getPlayer().setSleepingIgnored(true);
 		}
 
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
+		final Settings settings = ess.getSettings().getSnapshot();
 
-		if (!settings.getData().getCommands().isDisabled("motd") && Permissions.MOTD.isAuthorized(user))
+		if (!settings.getCommands().isDisabled("motd") && Permissions.MOTD.isAuthorized(user))
 		{
 			try
 			{
@@ -187,7 +183,7 @@ public class EssentialsPlayerListener implements Listener
 			}
 			catch (IOException ex)
 			{
-				if (settings.getData().getGeneral().isDebug())
+				if (settings.getGeneral().isDebug())
 				{
 					LOGGER.log(Level.WARNING, ex.getMessage(), ex);
 				}
@@ -198,7 +194,7 @@ public class EssentialsPlayerListener implements Listener
 			}
 		}
 
-		if (!settings.getData().getCommands().isDisabled("mail") && Permissions.MAIL.isAuthorized(user))
+		if (!settings.getCommands().isDisabled("mail") && Permissions.MAIL.isAuthorized(user))
 		{
 			final List<String> mail = user.getData().getMails();
 			if (mail == null || mail.isEmpty())
@@ -212,6 +208,20 @@ public class EssentialsPlayerListener implements Listener
 		}
 	}
 
+	/**
+	 * Loads the user file on the async pre-login thread, so the login and join handlers
+	 * on the main thread find the user data already in the cache.
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onAsyncPlayerPreLogin(final AsyncPlayerPreLoginEvent event)
+	{
+		if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+		{
+			return;
+		}
+		ess.getUserMap().getUser(event.getName());
+	}
+
 	@EventHandler(priority = EventPriority.HIGH)
 	public void onPlayerLogin(final PlayerLoginEvent event)
 	{
@@ -233,6 +243,7 @@ public class EssentialsPlayerListener implements Listener
 		final boolean banExpired = user.checkBanTimeout(currentTime);
 		user.checkMuteTimeout(currentTime);
 		user.checkJailTimeout(currentTime);
+		ess.getTimer().watchExpiry(user);
 
 		if (!banExpired && (user.isBanned() || event.getResult() == Result.KICK_BANNED))
 		{
@@ -255,11 +266,9 @@ public class EssentialsPlayerListener implements Listener
 	@EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
 	public void onPlayerTeleport(final PlayerTeleportEvent event)
 	{
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
+		final Settings settings = ess.getSettings().getSnapshot();
 		//There is TeleportCause.COMMMAND but plugins have to actively pass the cause in on their teleports.
-		if ((event.getCause() == TeleportCause.PLUGIN || event.getCause() == TeleportCause.COMMAND) && settings.getData().getCommands().getBack().isRegisterBackInListener())
+		if ((event.getCause() == TeleportCause.PLUGIN || event.getCause() == TeleportCause.COMMAND) && settings.getCommands().getBack().isRegisterBackInListener())
 		{
 			final IUser user = ess.getUserMap().getUser(event.getPlayer());
 			user.setLastLocation();
@@ -329,24 +338,23 @@ public class EssentialsPlayerListener implements Listener
 	@EventHandler(priority = EventPriority.MONITOR)
 	public void onPlayerChangedWorld(final PlayerChangedWorldEvent event)
 	{
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
+		final Settings settings = ess.getSettings().getSnapshot();
 		@Cleanup
 		final IUser user = ess.getUserMap().getUser(event.getPlayer());
 		user.acquireReadLock();
-		if (settings.getData().getChat().getChangeDisplayname())
+		ess.getRanks().invalidateCache(user);
+		if (settings.getChat().getChangeDisplayname())
 		{
 			user.updateDisplayName();
 		}
-		if (!settings.getData().getWorldOptions(event.getPlayer().getLocation().getWorld().getName()).isGodmode() && !Permissions.NOGOD_OVERRIDE.isAuthorized(user))
+		if (!settings.getWorldOptions(event.getPlayer().getLocation().getWorld().getName()).isGodmode() && !Permissions.NOGOD_OVERRIDE.isAuthorized(user))
 		{
 			if (user.getData().isGodmode())
 			{
 				user.sendMessage(_("noGodWorldWarning"));
 			}
 		}
-		if (settings.getData().getCommands().getTpa().isCancelTpRequestsOnWorldChange())
+		if (settings.getCommands().getTpa().isCancelTpRequestsOnWorldChange())
 		{
 			if (user.getTeleportRequester() != null)
 			{
@@ -370,10 +378,8 @@ public class EssentialsPlayerListener implements Listener
 			{
 				return;
 			}
-			@Cleanup
-			final ISettings settings = ess.getSettings();
-			settings.acquireReadLock();
-			if (settings.getData().getCommands().getHome().isUpdateBedAtDaytime() && event.getClickedBlock().getType() == Material.BED_BLOCK)
+			final Settings settings = ess.getSettings().getSnapshot();
+			if (settings.getCommands().getHome().isUpdateBedAtDaytime() && event.getClickedBlock().getType() == Material.BED_BLOCK)
 			{
 				event.getPlayer().setBedSpawnLocation(event.getClickedBlock().getLocation());
 			}
@@ -441,10 +447,8 @@ public class EssentialsPlayerListener implements Listener
 	@EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
 	public void onPlayerPickupItem(final PlayerPickupItemEvent event)
 	{
-		@Cleanup
-		final ISettings settings = ess.getSettings();
-		settings.acquireReadLock();
-		if (!settings.getData().getCommands().getAfk().isDisableItemPickupWhileAfk())
+		final Settings settings = ess.getSettings().getSnapshot();
+		if (!settings.getCommands().getAfk().isDisableItemPickupWhileAfk())
 		{
 			return;
 		}
@@ -127,6 +127,58 @@ public class MetricsStarter implements Runnable
 				}
 			});
 
+			final Graph cacheGraph = metrics.createGraph("User Cache");
+			cacheGraph.addPlotter(new Plotter("Cached Users")
+			{
+				@Override
+				public int getValue()
+				{
+					return ess.getUserMap().getCacheSize();
+				}
+			});
+			cacheGraph.addPlotter(new Plotter("Hit Rate")
+			{
+				@Override
+				public int getValue()
+				{
+					return (int)Math.round(ess.getUserMap().getCacheStats().hitRate() * 100);
+				}
+			});
+			cacheGraph.addPlotter(new Plotter("Evictions")
+			{
+				@Override
+				public int getValue()
+				{
+					return (int)ess.getUserMap().getCacheStats().evictionCount();
+				}
+			});
+
+			final Graph tickGraph = metrics.createGraph("Tick Time");
+			tickGraph.addPlotter(new Plotter("TPS")
+			{
+				@Override
+				public int getValue()
+				{
+					return (int)Math.round(ess.getTickMonitor().getAverageTPS(15));
+				}
+			});
+			tickGraph.addPlotter(new Plotter("95th Percentile ms")
+			{
+				@Override
+				public int getValue()
+				{
+					return (int)Math.round(ess.getTickMonitor().getPercentile(95));
+				}
+			});
+			tickGraph.addPlotter(new Plotter("Longest Tick ms")
+			{
+				@Override
+				public int getValue()
+				{
+					return (int)Math.round(ess.getTickMonitor().getWorstTick());
+				}
+			});
+
 			final Graph enabledGraph = metrics.createGraph("EnabledFeatures");
 			enabledGraph.addPlotter(new SimplePlotter("Total"));
 			@Cleanup
@@ -0,0 +1,49 @@
+package net.ess3.ranks;
+
+import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import net.ess3.utils.FormatUtil;
+
+
+/**
+ * Compiles chat formats from the config into message formats, every format is compiled only once.
+ */
+public class ChatFormatCache
+{
+	private final transient ConcurrentMap<String, MessageFormat> formats = new ConcurrentHashMap<String, MessageFormat>();
+
+	/**
+	 * Returns the compiled format. The result is a copy, because message formats are not thread safe.
+	 *
+	 * @param rawFormat chat format from the config
+	 * @return
+	 */
+	public MessageFormat get(final String rawFormat)
+	{
+		MessageFormat mFormat = formats.get(rawFormat);
+		if (mFormat == null)
+		{
+			mFormat = compile(rawFormat);
+			formats.put(rawFormat, mFormat);
+		}
+		return (MessageFormat)mFormat.clone();
+	}
+
+	public void clear()
+	{
+		formats.clear();
+	}
+
+	private static MessageFormat compile(final String rawFormat)
+	{
+		String format = FormatUtil.replaceFormat(rawFormat);
+		format = format.replace("{DISPLAYNAME}", "%1$s");
+		format = format.replace("{GROUP}", "{0}");
+		format = format.replace("{MESSAGE}", "%2$s");
+		format = format.replace("{WORLDNAME}", "{1}");
+		format = format.replace("{SHORTWORLDNAME}", "{2}");
+		format = format.replaceAll("\\{(\\D*)\\}", "\\[$1\\]");
+		return new MessageFormat(format);
+	}
+}
@@ -6,7 +6,6 @@ import net.ess3.api.IEssentials;
 import net.ess3.api.IRanks;
 import net.ess3.api.ISettings;
 import net.ess3.api.IUser;
-import net.ess3.utils.FormatUtil;
 import net.ess3.utils.Util;
 import org.anjocaido.groupmanager.GroupManager;
 import org.anjocaido.groupmanager.permissions.AnjoPermissionsHandler;
@@ -15,6 +14,7 @@ import org.bukkit.plugin.Plugin;
 public class GMGroups implements IRanks {
 	private final transient IEssentials ess;
 	private final transient GroupManager groupManager;
+	private final transient ChatFormatCache chatFormats = new ChatFormatCache();
 
 	public GMGroups(final IEssentials ess, final Plugin groupManager)
 	{
@@ -91,18 +91,20 @@ public class GMGroups implements IRanks {
 	@Override
 	public MessageFormat getChatFormat(final IUser player)
 	{
-			String format = getRawChatFormat(player);
-			format = FormatUtil.replaceFormat(format);
-			format = format.replace("{DISPLAYNAME}", "%1$s");
-			format = format.replace("{GROUP}", "{0}");
-			format = format.replace("{MESSAGE}", "%2$s");
-			format = format.replace("{WORLDNAME}", "{1}");
-			format = format.replace("{SHORTWORLDNAME}", "{2}");
-			format = format.replaceAll("\\{(\\D*)\\}", "\\[$1\\]");
-			MessageFormat mFormat = new MessageFormat(format);
-			return mFormat;		
+		return chatFormats.get(getRawChatFormat(player));
 	}
-	
+
+	@Override
+	public void invalidateCache(final IUser player)
+	{
+	}
+
+	@Override
+	public void invalidateCache()
+	{
+		chatFormats.clear();
+	}
+
 	private String getRawChatFormat(final IUser player)
 	{
 		AnjoPermissionsHandler handler = groupManager.getWorldsHolder().getWorldPermissions(player.getPlayer());
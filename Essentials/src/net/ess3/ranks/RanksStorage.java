@@ -1,12 +1,17 @@
 package net.ess3.ranks;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
 import java.io.File;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import lombok.Cleanup;
 import net.ess3.api.IEssentials;
 import net.ess3.api.IRanks;
@@ -14,12 +19,73 @@ import net.ess3.api.ISettings;
 import net.ess3.api.IUser;
 import net.ess3.permissions.GroupsPermissions;
 import net.ess3.storage.AsyncStorageObjectHolder;
-import net.ess3.utils.FormatUtil;
+import net.ess3.storage.StorageFormat;
 import net.ess3.utils.Util;
 
 
 public class RanksStorage extends AsyncStorageObjectHolder<Ranks> implements IRanks
 {
+	/**
+	 * Permissions can be changed by other plugins without notice, so the ranks of a user are checked again after a while.
+	 */
+	private static final long RANK_CACHE_EXPIRY = 10;
+	private final transient Cache<IUser, UserRanks> userRanks = CacheBuilder.newBuilder().weakKeys().expireAfterWrite(RANK_CACHE_EXPIRY, TimeUnit.SECONDS).build(new CacheLoader<IUser, UserRanks>()
+	{
+		@Override
+		public UserRanks load(final IUser player) throws Exception
+		{
+			return new UserRanks(findGroups(player));
+		}
+	});
+	private final transient ChatFormatCache chatFormats = new ChatFormatCache();
+
+
+
+	/**
+	 * The ranks of a user and the options resolved from them, the first rank that sets an option wins.
+	 */
+	private static final class UserRanks
+	{
+		private final transient List<Entry<String, RankOptions>> groups;
+		private final transient RankOptions options = new RankOptions();
+
+		public UserRanks(final List<Entry<String, RankOptions>> groups)
+		{
+			this.groups = groups;
+			for (int i = groups.size() - 1; i >= 0; i--)
+			{
+				final RankOptions rank = groups.get(i).getValue();
+				if (rank.getMessageFormat() != null)
+				{
+					options.setMessageFormat(rank.getMessageFormat());
+				}
+				if (rank.getPrefix() != null)
+				{
+					options.setPrefix(rank.getPrefix());
+				}
+				if (rank.getSuffix() != null)
+				{
+					options.setSuffix(rank.getSuffix());
+				}
+				if (rank.getHomes() != null)
+				{
+					options.setHomes(rank.getHomes());
+				}
+				if (rank.getTeleportCooldown() != null)
+				{
+					options.setTeleportCooldown(rank.getTeleportCooldown());
+				}
+				if (rank.getTeleportDelay() != null)
+				{
+					options.setTeleportDelay(rank.getTeleportDelay());
+				}
+				if (rank.getHealCooldown() != null)
+				{
+					options.setHealCooldown(rank.getHealCooldown());
+				}
+			}
+		}
+	}
 
 	@Override
 	public void finishRead()
@@ -38,13 +104,36 @@ public class RanksStorage extends AsyncStorageObjectHolder<Ranks> implements IRa
 		onReload();
 	}
 
+	@Override
+	public void onReload()
+	{
+		super.onReload();
+		invalidateCache();
+	}
+
 	@Override
 	public File getStorageFile()
 	{
 		return new File(ess.getPlugin().getDataFolder(), "ranks.yml");
 	}
+
+	@Override
+	public StorageFormat getStorageFormat()
+	{
+		return ess.getSettings().getStorageFormat();
+	}
 	
 	public Collection<Entry<String, RankOptions>> getGroups(final IUser player)
+	{
+		return userRanks.getUnchecked(player).groups;
+	}
+
+	private RankOptions getOptions(final IUser player)
+	{
+		return userRanks.getUnchecked(player).options;
+	}
+
+	private List<Entry<String, RankOptions>> findGroups(final IUser player)
 	{
 		acquireReadLock();
 		try
@@ -54,7 +143,7 @@ public class RanksStorage extends AsyncStorageObjectHolder<Ranks> implements IRa
 			{
 				return Collections.emptyList();
 			}
-			final ArrayList<Entry<String, RankOptions>> list = new ArrayList();
+			final List<Entry<String, RankOptions>> list = new ArrayList<Entry<String, RankOptions>>();
 			for (Entry<String, RankOptions> entry : groups.entrySet())
 			{
 				if (GroupsPermissions.getPermission(entry.getKey()).isAuthorized(player))
@@ -65,7 +154,7 @@ public class RanksStorage extends AsyncStorageObjectHolder<Ranks> implements IRa
 					}
 				}
 			}
-			return list;
+			return Collections.unmodifiableList(list);
 		}
 		finally
 		{
@@ -76,105 +165,57 @@ public class RanksStorage extends AsyncStorageObjectHolder<Ranks> implements IRa
 	@Override
 	public double getHealCooldown(final IUser player)
 	{
-		for (Entry<String, RankOptions> groupOptions : getGroups(player))
-		{
-			if (groupOptions.getValue().getHealCooldown() != null)
-			{
-				return groupOptions.getValue().getHealCooldown();
-			}
-		}
-		return 0;
+		final Integer healCooldown = getOptions(player).getHealCooldown();
+		return healCooldown == null ? 0 : healCooldown;
 	}
 
 	@Override
 	public double getTeleportCooldown(final IUser player)
 	{
-		for (Entry<String, RankOptions> groupOptions : getGroups(player))
-		{
-			if (groupOptions.getValue().getTeleportCooldown() != null)
-			{
-				return groupOptions.getValue().getTeleportCooldown();
-			}
-		}
-		return 0;
+		final Integer teleportCooldown = getOptions(player).getTeleportCooldown();
+		return teleportCooldown == null ? 0 : teleportCooldown;
 	}
-	
+
 	@Override
 	public double getTeleportDelay(final IUser player)
 	{
-		for (Entry<String, RankOptions> groupOptions : getGroups(player))
-		{
-			if (groupOptions.getValue().getTeleportDelay() != null)
-			{
-				return groupOptions.getValue().getTeleportDelay();
-			}
-		}
-		return 0;
+		final Integer teleportDelay = getOptions(player).getTeleportDelay();
+		return teleportDelay == null ? 0 : teleportDelay;
 	}
 
 	@Override
 	public String getPrefix(final IUser player)
 	{
-		for (Entry<String, RankOptions> groupOptions : getGroups(player))
-		{
-			if (groupOptions.getValue().getPrefix() != null)
-			{
-				return groupOptions.getValue().getPrefix();
-			}
-		}
-		return "";
+		final String prefix = getOptions(player).getPrefix();
+		return prefix == null ? "" : prefix;
 	}
 
 	@Override
 	public String getSuffix(final IUser player)
 	{
-		for (Entry<String, RankOptions> groupOptions : getGroups(player))
-		{
-			if (groupOptions.getValue().getSuffix() != null)
-			{
-				return groupOptions.getValue().getSuffix();
-			}
-		}
-		return "";
+		final String suffix = getOptions(player).getSuffix();
+		return suffix == null ? "" : suffix;
 	}
 
 	@Override
 	public int getHomeLimit(final IUser player)
 	{
-		for (Entry<String, RankOptions> groupOptions : getGroups(player))
-		{
-			if (groupOptions.getValue().getHomes() != null)
-			{
-				return groupOptions.getValue().getHomes();
-			}
-		}
-		return 0;
+		final Integer homes = getOptions(player).getHomes();
+		return homes == null ? 0 : homes;
 	}
-	
-	//TODO: Reimplement caching
+
 	@Override
 	public MessageFormat getChatFormat(final IUser player)
 	{
-			String format = getRawChatFormat(player);
-			format = FormatUtil.replaceFormat(format);
-			format = format.replace("{DISPLAYNAME}", "%1$s");
-			format = format.replace("{GROUP}", "{0}");
-			format = format.replace("{MESSAGE}", "%2$s");
-			format = format.replace("{WORLDNAME}", "{1}");
-			format = format.replace("{SHORTWORLDNAME}", "{2}");
-			format = format.replaceAll("\\{(\\D*)\\}", "\\[$1\\]");
-			MessageFormat mFormat = new MessageFormat(format);
-			return mFormat;		
+		return chatFormats.get(getRawChatFormat(player));
 	}
 	
 	private String getRawChatFormat(final IUser player)
 	{
-		for (Entry<String, RankOptions> groupOptions : getGroups(player))
+		final String messageFormat = getOptions(player).getMessageFormat();
+		if (messageFormat != null)
 		{
-			if (groupOptions.getValue().getMessageFormat() != null)
-			{
-				return groupOptions.getValue().getMessageFormat();
-			}
+			return messageFormat;
 		}
 		@Cleanup
 		ISettings settings = ess.getSettings();
@@ -182,6 +223,19 @@ public class RanksStorage extends AsyncStorageObjectHolder<Ranks> implements IRa
 		return settings.getData().getChat().getDefaultFormat();
 	}
 
+	@Override
+	public void invalidateCache(final IUser player)
+	{
+		userRanks.invalidate(player);
+	}
+
+	@Override
+	public void invalidateCache()
+	{
+		userRanks.invalidateAll();
+		chatFormats.clear();
+	}
+
 	@Override
 	public boolean inGroup(IUser player, String groupname)
 	{
@@ -6,7 +6,6 @@ import net.ess3.api.IEssentials;
 import net.ess3.api.IRanks;
 import net.ess3.api.ISettings;
 import net.ess3.api.IUser;
-import net.ess3.utils.FormatUtil;
 import net.ess3.utils.Util;
 import net.milkbowl.vault.chat.Chat;
 import org.bukkit.plugin.RegisteredServiceProvider;
@@ -15,6 +14,7 @@ import org.bukkit.plugin.RegisteredServiceProvider;
 public class VaultGroups implements IRanks
 {
 	private final IEssentials ess;
+	private final transient ChatFormatCache chatFormats = new ChatFormatCache();
 
 	public VaultGroups(final IEssentials ess)
 	{
@@ -71,16 +71,18 @@ public class VaultGroups implements IRanks
 	@Override
 	public MessageFormat getChatFormat(final IUser player)
 	{
-		String format = getRawChatFormat(player);
-		format = FormatUtil.replaceFormat(format);
-		format = format.replace("{DISPLAYNAME}", "%1$s");
-		format = format.replace("{GROUP}", "{0}");
-		format = format.replace("{MESSAGE}", "%2$s");
-		format = format.replace("{WORLDNAME}", "{1}");
-		format = format.replace("{SHORTWORLDNAME}", "{2}");
-		format = format.replaceAll("\\{(\\D*)\\}", "\\[$1\\]");
-		MessageFormat mFormat = new MessageFormat(format);
-		return mFormat;
+		return chatFormats.get(getRawChatFormat(player));
+	}
+
+	@Override
+	public void invalidateCache(final IUser player)
+	{
+	}
+
+	@Override
+	public void invalidateCache()
+	{
+		chatFormats.clear();
 	}
 
 	private String getRawChatFormat(final IUser player)
@@ -52,6 +52,16 @@ public class Economy implements StorageObject
 	
 	@Comment("Enable this to log all interactions with trade/buy/sell signs and sell command")
 	private boolean logEnabled = false;
+	@Comment(
+	{
+		"Start a new trade log when it gets bigger than this many megabytes.",
+		"Set this to 0 to never rotate the log because of its size."
+	})
+	private int logMaxSize = 0;
+	@Comment("Start a new trade log every day.")
+	private boolean logRotateDaily = false;
+	@Comment("Compress the old trade logs with gzip.")
+	private boolean logCompress = false;
 	private Worth worth = new Worth();
 	private boolean tradeInStacks = false;
 
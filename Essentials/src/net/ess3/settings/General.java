@@ -3,6 +3,7 @@ package net.ess3.settings;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import net.ess3.storage.Comment;
+import net.ess3.storage.StorageFormat;
 import net.ess3.storage.StorageObject;
 
 
@@ -78,4 +79,30 @@ public class General implements StorageObject
 		return loginAttackDelay * 1000;
 	}
 	public boolean metricsEnabled = true;
+	@Comment(
+	{
+		"Changes to user files and other data files are collected and written to disk",
+		"at most once in this time, in seconds. All pending changes are saved on shutdown."
+	})
+	private int storageWriteDelay = 5;
+	@Comment("The maximum number of files that are written to disk at the same time.")
+	private int storageWriters = 2;
+	@Comment(
+	{
+		"The maximum number of users kept in memory.",
+		"Online users are always kept in memory, but they count towards this limit,",
+		"so it should be larger than the number of players that are usually online."
+	})
+	private int userCacheSize = 500;
+	@Comment("Offline users are removed from memory, if they have not been used for this many minutes.")
+	private int userCacheExpiry = 30;
+	@Comment(
+	{
+		"The file format of user, warp, jail and rank files:",
+		" YAML: Human readable files, which can be edited by hand",
+		" BINARY: Compact files, which are much faster to load",
+		"Files in the other format are still read and converted the next time they are saved.",
+		"To edit a binary file by hand, switch back to YAML and let it be saved once."
+	})
+	private StorageFormat storageFormat = StorageFormat.YAML;
 }
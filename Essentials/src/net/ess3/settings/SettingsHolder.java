@@ -2,9 +2,11 @@ package net.ess3.settings;
 
 import java.io.File;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import net.ess3.api.IEssentials;
 import net.ess3.api.ISettings;
 import net.ess3.storage.AsyncStorageObjectHolder;
+import net.ess3.storage.StorageFormat;
 
 
 public class SettingsHolder extends AsyncStorageObjectHolder<Settings> implements ISettings
@@ -22,6 +24,7 @@ public class SettingsHolder extends AsyncStorageObjectHolder<Settings> implement
 		
 	}
 	private final transient AtomicBoolean debug = new AtomicBoolean(false);
+	private final transient AtomicReference<StorageFormat> storageFormat = new AtomicReference<StorageFormat>(StorageFormat.YAML);
 	public SettingsHolder(final IEssentials ess)
 	{
 		super(ess, Settings.class);
@@ -35,6 +38,8 @@ public class SettingsHolder extends AsyncStorageObjectHolder<Settings> implement
 		acquireReadLock();
 		try {
 			debug.set(getData().getGeneral().isDebug());
+			final StorageFormat format = getData().getGeneral().getStorageFormat();
+			storageFormat.set(format == null ? StorageFormat.YAML : format);
 		} finally {
 			unlock();
 		}
@@ -63,6 +68,12 @@ public class SettingsHolder extends AsyncStorageObjectHolder<Settings> implement
 		return debug.get();
 	}
 	
+	@Override
+	public StorageFormat getStorageFormat()
+	{
+		return storageFormat.get();
+	}
+
 	@Override
 	public void setDebug(final boolean set)
 	{
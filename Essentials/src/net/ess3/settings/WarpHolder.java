@@ -6,6 +6,7 @@ import net.ess3.api.IEssentials;
 import net.ess3.api.IWarp;
 import net.ess3.api.InvalidNameException;
 import net.ess3.storage.AsyncStorageObjectHolder;
+import net.ess3.storage.StorageFormat;
 
 
 public class WarpHolder extends AsyncStorageObjectHolder<Warp> implements IWarp
@@ -44,5 +45,11 @@ public class WarpHolder extends AsyncStorageObjectHolder<Warp> implements IWarp
 			throw new IOException(ex.getMessage(), ex);
 		}
 	}
+
+	@Override
+	public StorageFormat getStorageFormat()
+	{
+		return ess.getSettings().getStorageFormat();
+	}
 	
 }
@@ -20,6 +20,8 @@ public class Protect implements StorageObject
 	private String dbuser = "root";
 	private String dbpassword = "";
 	private String dburl = "jdbc:mysql://localhost:3306/minecraft";
+	@Comment("Keep all protections in memory, the database is only written to in the background.")
+	private boolean memstore = false;
 	@Comment("For which block types would you like to be alerted?")
 	@ListType(Material.class)
 	private Set<Material> alertOnPlacement = new HashSet<Material>();
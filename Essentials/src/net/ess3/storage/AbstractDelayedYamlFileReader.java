@@ -1,9 +1,11 @@
 package net.ess3.storage;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import net.ess3.api.IEssentials;
@@ -12,7 +14,7 @@ import org.bukkit.Bukkit;
 
 public abstract class AbstractDelayedYamlFileReader<T extends StorageObject> implements Runnable
 {
-	
+	private final static int BUFFERSIZE = 1024 * 16;
 	private final transient Class<T> clazz;
 	private final transient IEssentials ess;
 	private final transient ReentrantLock lock = new ReentrantLock();
@@ -37,6 +39,11 @@ public abstract class AbstractDelayedYamlFileReader<T extends StorageObject> imp
 
 	public abstract File onStart() throws IOException;
 
+	public StorageFormat getFormat()
+	{
+		return StorageFormat.YAML;
+	}
+
 	@Override
 	public void run()
 	{
@@ -44,20 +51,20 @@ public abstract class AbstractDelayedYamlFileReader<T extends StorageObject> imp
 		lock.lock();
 		try
 		{
-			file = onStart();
+			file = getFormat().findFile(onStart());
 			try
 			{
-				final FileReader reader = new FileReader(file);
+				final InputStream input = new BufferedInputStream(new FileInputStream(file), BUFFERSIZE);
 				try
 				{
-					final T object = new YamlStorageReader(reader, ess.getPlugin()).load(clazz);
+					final T object = StorageFormat.getFormat(file).load(clazz, input, ess.getPlugin());
 					onSuccess(object);
 				}
 				finally
 				{
 					try
 					{
-						reader.close();
+						input.close();
 					}
 					catch (IOException ex)
 					{
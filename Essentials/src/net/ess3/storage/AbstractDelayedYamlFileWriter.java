@@ -1,9 +1,11 @@
 package net.ess3.storage;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import net.ess3.api.IEssentials;
@@ -12,8 +14,10 @@ import org.bukkit.Bukkit;
 
 public abstract class AbstractDelayedYamlFileWriter implements Runnable
 {
+	private final static int BUFFERSIZE = 1024 * 16;
 	private final transient IEssentials ess;
 	private final transient ReentrantLock lock = new ReentrantLock();
+	private final transient AtomicInteger pending = new AtomicInteger();
 
 	public AbstractDelayedYamlFileWriter(final IEssentials ess)
 	{
@@ -22,42 +26,95 @@ public abstract class AbstractDelayedYamlFileWriter implements Runnable
 
 	public void schedule()
 	{
-		ess.getPlugin().scheduleAsyncDelayedTask(this);
+		ess.getStorageQueue().markDirty(this);
+	}
+
+	/**
+	 * Called by the storage queue, when a write has been queued.
+	 */
+	void queued()
+	{
+		pending.incrementAndGet();
+	}
+
+	/**
+	 * Called by the storage queue, after a queued write has been done.
+	 */
+	void written()
+	{
+		pending.decrementAndGet();
+	}
+
+	/**
+	 * @return true, if a write is waiting in the storage queue or is being done
+	 */
+	boolean isPending()
+	{
+		return pending.get() > 0;
 	}
 
 	public abstract File getFile() throws IOException;
 
 	public abstract StorageObject getObject();
 
+	public StorageFormat getFormat()
+	{
+		return StorageFormat.YAML;
+	}
+
 	@Override
 	public void run()
 	{
 		lock.lock();
 		try
 		{
-			final File file = getFile();
-			PrintWriter pw = null;
+			final StorageFormat format = getFormat();
+			final File file = format.getFile(getFile());
+			final File folder = file.getParentFile();
+			if (!folder.exists())
+			{
+				folder.mkdirs();
+			}
+			final File tempFile = File.createTempFile(file.getName() + ".", ".tmp", folder);
+			boolean written = false;
 			try
 			{
-				final StorageObject object = getObject();
-				final File folder = file.getParentFile();
-				if (!folder.exists())
+				final FileOutputStream fos = new FileOutputStream(tempFile);
+				try
 				{
-					folder.mkdirs();
+					final OutputStream output = new BufferedOutputStream(fos, BUFFERSIZE);
+					try
+					{
+						final StorageObject object = getObject();
+						format.save(object, output);
+					}
+					finally
+					{
+						onFinish();
+					}
+					output.flush();
+					fos.getFD().sync();
 				}
-				pw = new PrintWriter(file);
-				new YamlStorageWriter(pw).save(object);
+				finally
+				{
+					fos.close();
+				}
+				replaceFile(tempFile, file);
+				written = true;
 			}
-			catch (FileNotFoundException ex)
+			finally
 			{
-				Bukkit.getLogger().log(Level.SEVERE, file.toString(), ex);
+				if (!written && !tempFile.delete())
+				{
+					tempFile.deleteOnExit();
+				}
 			}
-			finally
+			for (StorageFormat otherFormat : StorageFormat.values())
 			{
-				onFinish();
-				if (pw != null)
+				final File otherFile = otherFormat.getFile(file);
+				if (otherFormat != format && otherFile.exists() && !otherFile.delete())
 				{
-					pw.close();
+					Bukkit.getLogger().log(Level.WARNING, "Could not delete file {0}", otherFile);
 				}
 			}
 		}
@@ -71,5 +128,26 @@ public abstract class AbstractDelayedYamlFileWriter implements Runnable
 		}
 	}
 
+	/**
+	 * Moves the fully written temporary file over the target.
+	 * The rename is atomic on POSIX filesystems, so the target is either the old or the new file.
+	 * Windows can't rename over an existing file, so there the old file is removed first.
+	 */
+	private static void replaceFile(final File tempFile, final File file) throws IOException
+	{
+		if (tempFile.renameTo(file))
+		{
+			return;
+		}
+		if (file.exists() && !file.delete())
+		{
+			throw new IOException("Could not delete file " + file.toString());
+		}
+		if (!tempFile.renameTo(file))
+		{
+			throw new IOException("Could not rename " + tempFile.toString() + " to " + file.toString());
+		}
+	}
+
 	public abstract void onFinish();
 }
@@ -1,9 +1,12 @@
 package net.ess3.storage;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import net.ess3.api.IEssentials;
@@ -19,6 +22,7 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 	private final transient StorageObjectDataWriter writer;
 	private final transient StorageObjectDataReader reader;
 	private final transient AtomicBoolean loaded = new AtomicBoolean(false);
+	private final transient AtomicReference<T> snapshot = new AtomicReference<T>();
 
 	public AsyncStorageObjectHolder(final IEssentials ess, final Class<T> clazz)
 	{
@@ -52,6 +56,51 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 		return data;
 	}
 
+	/**
+	 * The copy is made on the first call after a change, while holding the read lock.
+	 * Writers clear it while they still hold the write lock, so an outdated copy is never published.
+	 */
+	@Override
+	public T getSnapshot()
+	{
+		T copy = snapshot.get();
+		if (copy != null)
+		{
+			return copy;
+		}
+		// Loading drops the read holds of this thread, so it has to happen before the lock is taken
+		if (!loaded.get())
+		{
+			reader.schedule(true);
+		}
+		rwl.readLock().lock();
+		try
+		{
+			copy = copyData(data);
+			snapshot.set(copy);
+			return copy;
+		}
+		finally
+		{
+			rwl.readLock().unlock();
+		}
+	}
+
+	private T copyData(final T object)
+	{
+		try
+		{
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			StorageFormat.YAML.save(object, output);
+			return StorageFormat.YAML.load(clazz, new ByteArrayInputStream(output.toByteArray()), ess.getPlugin());
+		}
+		catch (Exception ex)
+		{
+			Bukkit.getLogger().log(Level.SEVERE, "Can't copy " + clazz.getSimpleName() + ", readers will use the live data", ex);
+			return object;
+		}
+	}
+
 	@Override
 	public void acquireReadLock()
 	{
@@ -80,6 +129,7 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 	{
 		if (rwl.isWriteLockedByCurrentThread())
 		{
+			snapshot.set(null);
 			rwl.writeLock().unlock();
 			writer.schedule();
 		}
@@ -89,6 +139,15 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 		}
 	}
 
+	/**
+	 * Writes the data now, if a write is still waiting in the storage queue.
+	 * Has to be called before the holder is dropped, so a new holder doesn't read an outdated file.
+	 */
+	public void flushWrite()
+	{
+		ess.getStorageQueue().flush(writer);
+	}
+
 	@Override
 	public void onReload()
 	{
@@ -106,6 +165,14 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 	
 	public abstract File getStorageFile() throws IOException;
 
+	/**
+	 * The format new data is written in, existing files in other formats are still read.
+	 */
+	public StorageFormat getStorageFormat()
+	{
+		return StorageFormat.YAML;
+	}
+
 
 	private class StorageObjectDataWriter extends AbstractDelayedYamlFileWriter
 	{
@@ -120,6 +187,12 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 			return getStorageFile();
 		}
 
+		@Override
+		public StorageFormat getFormat()
+		{
+			return getStorageFormat();
+		}
+
 		@Override
 		public StorageObject getObject()
 		{
@@ -155,6 +228,12 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 			return file;
 		}
 
+		@Override
+		public StorageFormat getFormat()
+		{
+			return getStorageFormat();
+		}
+
 		@Override
 		public void onSuccess(final T object)
 		{
@@ -162,6 +241,7 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 			{
 				data = object;
 			}
+			snapshot.set(null);
 			rwl.writeLock().unlock();
 			loaded.set(true);
 		}
@@ -180,6 +260,7 @@ public abstract class AsyncStorageObjectHolder<T extends StorageObject> implemen
 					Bukkit.getLogger().log(Level.SEVERE, ex.getMessage(), ex);
 				}
 			}
+			snapshot.set(null);
 			rwl.writeLock().unlock();
 			loaded.set(true);
 			if (exception instanceof FileNotFoundException)
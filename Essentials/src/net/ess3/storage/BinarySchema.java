@@ -0,0 +1,139 @@
+package net.ess3.storage;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * The fields of a storage object class as seen by the binary format, together with the
+ * element, key and value classes taken from the {@link ListType}, {@link MapKeyType}
+ * and {@link MapValueType} annotations.
+ */
+final class BinarySchema
+{
+	static final int MAGIC = 0x45535342;
+	static final int VERSION = 1;
+	static final byte NULL = 0;
+	static final byte TRUE = 1;
+	static final byte FALSE = 2;
+	static final byte INT = 3;
+	static final byte LONG = 4;
+	static final byte DOUBLE = 5;
+	static final byte FLOAT = 6;
+	static final byte SHORT = 7;
+	static final byte BYTE = 8;
+	static final byte STRING = 9;
+	static final byte ENUM = 10;
+	static final byte MATERIAL = 11;
+	static final byte MATERIAL_DATA = 12;
+	static final byte ITEM_STACK = 13;
+	static final byte ENCHANTMENT_LEVEL = 14;
+	static final byte LOCATION = 15;
+	static final byte OBJECT = 16;
+	static final byte LIST = 17;
+	static final byte SET = 18;
+	static final byte MAP = 19;
+	private static final Map<Class, BinarySchema> SCHEMAS = new ConcurrentHashMap<Class, BinarySchema>();
+	private final transient List<FieldInfo> fields;
+	private final transient Map<String, FieldInfo> fieldsByName;
+
+	private BinarySchema(final Class clazz)
+	{
+		final List<FieldInfo> list = new ArrayList<FieldInfo>();
+		final Map<String, FieldInfo> map = new HashMap<String, FieldInfo>();
+		for (Field field : clazz.getDeclaredFields())
+		{
+			final int modifier = field.getModifiers();
+			if (Modifier.isPrivate(modifier) && !Modifier.isTransient(modifier) && !Modifier.isStatic(modifier))
+			{
+				field.setAccessible(true);
+				final FieldInfo info = new FieldInfo(field);
+				list.add(info);
+				map.put(info.getName(), info);
+			}
+		}
+		fields = Collections.unmodifiableList(list);
+		fieldsByName = map;
+	}
+
+	static BinarySchema getSchema(final Class clazz)
+	{
+		BinarySchema schema = SCHEMAS.get(clazz);
+		if (schema == null)
+		{
+			schema = new BinarySchema(clazz);
+			SCHEMAS.put(clazz, schema);
+		}
+		return schema;
+	}
+
+	List<FieldInfo> getFields()
+	{
+		return fields;
+	}
+
+	FieldInfo getField(final String name)
+	{
+		return fieldsByName.get(name);
+	}
+
+
+	static final class FieldInfo
+	{
+		private final transient Field field;
+		private final transient String name;
+		private final transient Class elementClass;
+		private final transient Class keyClass;
+
+		FieldInfo(final Field field)
+		{
+			this.field = field;
+			this.name = field.getName();
+			final ListType listType = field.getAnnotation(ListType.class);
+			final MapValueType mapValueType = field.getAnnotation(MapValueType.class);
+			final MapKeyType mapKeyType = field.getAnnotation(MapKeyType.class);
+			if (mapValueType != null)
+			{
+				elementClass = mapValueType.value();
+			}
+			else if (listType != null)
+			{
+				elementClass = listType.value();
+			}
+			else
+			{
+				elementClass = null;
+			}
+			keyClass = mapKeyType == null ? String.class : mapKeyType.value();
+		}
+
+		Field getField()
+		{
+			return field;
+		}
+
+		String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * The class of the list elements or map values, null if not annotated.
+		 */
+		Class getElementClass()
+		{
+			return elementClass;
+		}
+
+		Class getKeyClass()
+		{
+			return keyClass;
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package net.ess3.storage;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+
+
+/**
+ * Reads storage objects written by {@link BinaryStorageWriter}.
+ *
+ * Storage objects and enums are not named in the file, their classes are taken from the field
+ * declarations and annotations of the class that is loaded. Unknown fields are skipped.
+ */
+public class BinaryStorageReader implements IStorageReader
+{
+	private transient final DataInputStream input;
+
+	public BinaryStorageReader(final DataInputStream input)
+	{
+		this.input = input;
+	}
+
+	@Override
+	public <T extends StorageObject> T load(final Class<? extends T> clazz) throws ObjectLoadException
+	{
+		try
+		{
+			if (input.readInt() != BinarySchema.MAGIC)
+			{
+				throw new IOException("Not a binary storage file");
+			}
+			final int version = input.readUnsignedByte();
+			if (version != BinarySchema.VERSION)
+			{
+				throw new IOException("Unsupported binary storage version " + version);
+			}
+			if (input.readByte() != BinarySchema.OBJECT)
+			{
+				throw new IOException("Storage object expected");
+			}
+			return (T)readObject(clazz);
+		}
+		catch (Exception ex)
+		{
+			throw new ObjectLoadException(ex);
+		}
+	}
+
+	private Object readObject(final Class clazz) throws IOException, InstantiationException, IllegalAccessException
+	{
+		final Object object = clazz.newInstance();
+		final BinarySchema schema = BinarySchema.getSchema(clazz);
+		final int count = input.readUnsignedShort();
+		for (int i = 0; i < count; i++)
+		{
+			final String name = input.readUTF();
+			final BinarySchema.FieldInfo info = schema.getField(name);
+			if (info == null)
+			{
+				readValue(input.readByte(), null, null, null);
+				continue;
+			}
+			final Field field = info.getField();
+			final Object value = readValue(input.readByte(), field.getType(), info.getKeyClass(), info.getElementClass());
+			field.set(object, convert(value, field.getType()));
+		}
+		return object;
+	}
+
+	private void skipObject() throws IOException, InstantiationException, IllegalAccessException
+	{
+		final int count = input.readUnsignedShort();
+		for (int i = 0; i < count; i++)
+		{
+			input.readUTF();
+			readValue(input.readByte(), null, null, null);
+		}
+	}
+
+	private Object readValue(final byte type, final Class clazz, final Class keyClass, final Class elementClass) throws IOException, InstantiationException, IllegalAccessException
+	{
+		switch (type)
+		{
+		case BinarySchema.NULL:
+			return null;
+		case BinarySchema.TRUE:
+			return Boolean.TRUE;
+		case BinarySchema.FALSE:
+			return Boolean.FALSE;
+		case BinarySchema.INT:
+			return input.readInt();
+		case BinarySchema.LONG:
+			return input.readLong();
+		case BinarySchema.DOUBLE:
+			return input.readDouble();
+		case BinarySchema.FLOAT:
+			return input.readFloat();
+		case BinarySchema.SHORT:
+			return input.readShort();
+		case BinarySchema.BYTE:
+			return input.readByte();
+		case BinarySchema.STRING:
+			return input.readUTF();
+		case BinarySchema.ENUM:
+			final String enumName = input.readUTF();
+			if (clazz == null || !clazz.isEnum())
+			{
+				return enumName;
+			}
+			return Enum.valueOf(clazz, enumName);
+		case BinarySchema.MATERIAL:
+			return Material.getMaterial(input.readUTF());
+		case BinarySchema.MATERIAL_DATA:
+			final Material dataType = Material.getMaterial(input.readUTF());
+			final byte data = input.readByte();
+			return dataType == null ? null : dataType.getNewData(data);
+		case BinarySchema.ITEM_STACK:
+			final Material itemType = Material.getMaterial(input.readUTF());
+			final short durability = input.readShort();
+			final int amount = input.readInt();
+			final int enchantments = input.readUnsignedShort();
+			final ItemStack itemStack = itemType == null ? null : new ItemStack(itemType, amount, durability);
+			for (int i = 0; i < enchantments; i++)
+			{
+				final Enchantment itemEnchantment = Enchantment.getByName(input.readUTF());
+				final int itemLevel = input.readInt();
+				if (itemStack != null && itemEnchantment != null)
+				{
+					itemStack.addUnsafeEnchantment(itemEnchantment, itemLevel);
+				}
+			}
+			return itemStack;
+		case BinarySchema.ENCHANTMENT_LEVEL:
+			final Enchantment enchantment = Enchantment.getByName(input.readUTF());
+			final int level = input.readInt();
+			return enchantment == null ? null : new EnchantmentLevel(enchantment, level);
+		case BinarySchema.LOCATION:
+			return new StoredLocation(input.readUTF(), input.readDouble(), input.readDouble(), input.readDouble(), input.readFloat(), input.readFloat());
+		case BinarySchema.OBJECT:
+			if (clazz == null || !StorageObject.class.isAssignableFrom(clazz))
+			{
+				skipObject();
+				return null;
+			}
+			return readObject(clazz);
+		case BinarySchema.LIST:
+		case BinarySchema.SET:
+			final int size = input.readInt();
+			final Collection<Object> collection = createCollection(type, clazz, size);
+			for (int i = 0; i < size; i++)
+			{
+				final Object entry = readValue(input.readByte(), elementClass, null, null);
+				if (entry != null)
+				{
+					collection.add(entry);
+				}
+			}
+			return collection;
+		case BinarySchema.MAP:
+			final int entries = input.readInt();
+			final Map<Object, Object> map = createMap(clazz, entries);
+			for (int i = 0; i < entries; i++)
+			{
+				final Object key = readValue(input.readByte(), keyClass, null, null);
+				final Object value = readValue(input.readByte(), elementClass, null, null);
+				if (key != null && value != null)
+				{
+					map.put(key, value);
+				}
+			}
+			return map;
+		default:
+			throw new IOException("Unknown type " + type);
+		}
+	}
+
+	private Collection<Object> createCollection(final byte type, final Class clazz, final int size) throws InstantiationException, IllegalAccessException
+	{
+		if (isInstantiable(clazz) && Collection.class.isAssignableFrom(clazz))
+		{
+			return (Collection<Object>)clazz.newInstance();
+		}
+		if (type == BinarySchema.SET || (clazz != null && Set.class.isAssignableFrom(clazz)))
+		{
+			return new HashSet<Object>(Math.max(16, size * 2));
+		}
+		return new ArrayList<Object>(size);
+	}
+
+	private Map<Object, Object> createMap(final Class clazz, final int size) throws InstantiationException, IllegalAccessException
+	{
+		if (isInstantiable(clazz) && Map.class.isAssignableFrom(clazz))
+		{
+			return (Map<Object, Object>)clazz.newInstance();
+		}
+		return new HashMap<Object, Object>(Math.max(16, size * 2));
+	}
+
+	private boolean isInstantiable(final Class clazz)
+	{
+		return clazz != null && !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers());
+	}
+
+	private Object convert(final Object value, final Class clazz)
+	{
+		if (!(value instanceof Number) || clazz.isInstance(value))
+		{
+			return value;
+		}
+		final Number number = (Number)value;
+		if (clazz == int.class || clazz == Integer.class)
+		{
+			return number.intValue();
+		}
+		if (clazz == long.class || clazz == Long.class)
+		{
+			return number.longValue();
+		}
+		if (clazz == double.class || clazz == Double.class)
+		{
+			return number.doubleValue();
+		}
+		if (clazz == float.class || clazz == Float.class)
+		{
+			return number.floatValue();
+		}
+		if (clazz == short.class || clazz == Short.class)
+		{
+			return number.shortValue();
+		}
+		if (clazz == byte.class || clazz == Byte.class)
+		{
+			return number.byteValue();
+		}
+		return value;
+	}
+}
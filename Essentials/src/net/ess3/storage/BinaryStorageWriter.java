@@ -0,0 +1,209 @@
+package net.ess3.storage;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.material.MaterialData;
+
+
+/**
+ * Writes storage objects in the compact format read by {@link BinaryStorageReader}.
+ *
+ * Every value is prefixed with a type tag and every field with its name, so fields can be added
+ * or removed from a storage object without breaking existing files.
+ */
+public class BinaryStorageWriter implements IStorageWriter
+{
+	private transient final DataOutputStream output;
+	private transient boolean error = false;
+
+	public BinaryStorageWriter(final DataOutputStream output)
+	{
+		this.output = output;
+	}
+
+	@Override
+	public void save(final StorageObject object)
+	{
+		try
+		{
+			output.writeInt(BinarySchema.MAGIC);
+			output.writeByte(BinarySchema.VERSION);
+			writeObject(object);
+			output.flush();
+		}
+		catch (IOException ex)
+		{
+			error = true;
+			Logger.getLogger(BinaryStorageWriter.class.getName()).log(Level.SEVERE, null, ex);
+		}
+		catch (IllegalAccessException ex)
+		{
+			error = true;
+			Logger.getLogger(BinaryStorageWriter.class.getName()).log(Level.SEVERE, null, ex);
+		}
+	}
+
+	public boolean checkError()
+	{
+		return error;
+	}
+
+	private void writeObject(final Object object) throws IOException, IllegalAccessException
+	{
+		final BinarySchema schema = BinarySchema.getSchema(object.getClass());
+		int count = 0;
+		for (BinarySchema.FieldInfo field : schema.getFields())
+		{
+			if (field.getField().get(object) != null)
+			{
+				count++;
+			}
+		}
+		output.writeShort(count);
+		for (BinarySchema.FieldInfo field : schema.getFields())
+		{
+			final Object data = field.getField().get(object);
+			if (data != null)
+			{
+				output.writeUTF(field.getName());
+				writeValue(data);
+			}
+		}
+	}
+
+	private void writeValue(final Object data) throws IOException, IllegalAccessException
+	{
+		if (data == null)
+		{
+			output.writeByte(BinarySchema.NULL);
+		}
+		else if (data instanceof String)
+		{
+			output.writeByte(BinarySchema.STRING);
+			output.writeUTF((String)data);
+		}
+		else if (data instanceof Boolean)
+		{
+			output.writeByte(((Boolean)data) ? BinarySchema.TRUE : BinarySchema.FALSE);
+		}
+		else if (data instanceof Integer)
+		{
+			output.writeByte(BinarySchema.INT);
+			output.writeInt((Integer)data);
+		}
+		else if (data instanceof Long)
+		{
+			output.writeByte(BinarySchema.LONG);
+			output.writeLong((Long)data);
+		}
+		else if (data instanceof Double)
+		{
+			output.writeByte(BinarySchema.DOUBLE);
+			output.writeDouble((Double)data);
+		}
+		else if (data instanceof Float)
+		{
+			output.writeByte(BinarySchema.FLOAT);
+			output.writeFloat((Float)data);
+		}
+		else if (data instanceof Short)
+		{
+			output.writeByte(BinarySchema.SHORT);
+			output.writeShort((Short)data);
+		}
+		else if (data instanceof Byte)
+		{
+			output.writeByte(BinarySchema.BYTE);
+			output.writeByte((Byte)data);
+		}
+		else if (data instanceof Material)
+		{
+			output.writeByte(BinarySchema.MATERIAL);
+			output.writeUTF(((Material)data).name());
+		}
+		else if (data instanceof Enum)
+		{
+			output.writeByte(BinarySchema.ENUM);
+			output.writeUTF(((Enum)data).name());
+		}
+		else if (data instanceof StorageObject)
+		{
+			output.writeByte(BinarySchema.OBJECT);
+			writeObject(data);
+		}
+		else if (data instanceof StoredLocation)
+		{
+			final StoredLocation location = (StoredLocation)data;
+			output.writeByte(BinarySchema.LOCATION);
+			output.writeUTF(location.getWorldName());
+			output.writeDouble(location.getX());
+			output.writeDouble(location.getY());
+			output.writeDouble(location.getZ());
+			output.writeFloat(location.getYaw());
+			output.writeFloat(location.getPitch());
+		}
+		else if (data instanceof MaterialData)
+		{
+			final MaterialData matData = (MaterialData)data;
+			output.writeByte(BinarySchema.MATERIAL_DATA);
+			output.writeUTF(matData.getItemType().name());
+			output.writeByte(matData.getData());
+		}
+		else if (data instanceof ItemStack)
+		{
+			final ItemStack itemStack = (ItemStack)data;
+			output.writeByte(BinarySchema.ITEM_STACK);
+			output.writeUTF(itemStack.getType().name());
+			output.writeShort(itemStack.getDurability());
+			output.writeInt(itemStack.getAmount());
+			final Map<Enchantment, Integer> enchantments = itemStack.getEnchantments();
+			output.writeShort(enchantments.size());
+			for (Entry<Enchantment, Integer> entry : enchantments.entrySet())
+			{
+				output.writeUTF(entry.getKey().getName());
+				output.writeInt(entry.getValue());
+			}
+		}
+		else if (data instanceof EnchantmentLevel)
+		{
+			final EnchantmentLevel enchLevel = (EnchantmentLevel)data;
+			output.writeByte(BinarySchema.ENCHANTMENT_LEVEL);
+			output.writeUTF(enchLevel.getEnchantment().getName());
+			output.writeInt(enchLevel.getLevel());
+		}
+		else if (data instanceof Map)
+		{
+			final Map<Object, Object> map = (Map<Object, Object>)data;
+			output.writeByte(BinarySchema.MAP);
+			output.writeInt(map.size());
+			for (Entry<Object, Object> entry : map.entrySet())
+			{
+				writeValue(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		}
+		else if (data instanceof Collection)
+		{
+			final Collection<Object> collection = (Collection<Object>)data;
+			output.writeByte(data instanceof Set ? BinarySchema.SET : BinarySchema.LIST);
+			output.writeInt(collection.size());
+			for (Object entry : collection)
+			{
+				writeValue(entry);
+			}
+		}
+		else
+		{
+			throw new UnsupportedOperationException(data.getClass().getName());
+		}
+	}
+}
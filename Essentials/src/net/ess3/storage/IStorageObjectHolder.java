@@ -7,6 +7,14 @@ public interface IStorageObjectHolder<T extends StorageObject> extends IReload
 {
 	T getData();
 
+	/**
+	 * Returns a copy of the data, which can be read without acquiring a lock.
+	 * The copy is shared by all readers and must not be modified. It is replaced after the data is reloaded or written.
+	 *
+	 * @return Copy of the data
+	 */
+	T getSnapshot();
+
 	void acquireReadLock();
 
 	void acquireWriteLock();
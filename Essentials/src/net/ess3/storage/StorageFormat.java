@@ -0,0 +1,127 @@
+package net.ess3.storage;
+
+import java.io.*;
+import net.ess3.api.IPlugin;
+
+
+/**
+ * The file formats storage objects can be saved in.
+ *
+ * Reading picks up a file in any format, writing converts it to the configured one and
+ * removes the file in the old format. So switching back to YAML exports every object
+ * for hand editing the next time it is saved.
+ */
+public enum StorageFormat
+{
+	YAML("yml")
+	{
+		@Override
+		public void save(final StorageObject object, final OutputStream output) throws IOException
+		{
+			final PrintWriter writer = new PrintWriter(new OutputStreamWriter(output));
+			new YamlStorageWriter(writer).save(object);
+			writer.flush();
+			if (writer.checkError())
+			{
+				throw new IOException("Could not write yaml data");
+			}
+		}
+
+		@Override
+		public <T extends StorageObject> T load(final Class<? extends T> clazz, final InputStream input, final IPlugin plugin) throws ObjectLoadException
+		{
+			return new YamlStorageReader(new InputStreamReader(input), plugin).load(clazz);
+		}
+	},
+	BINARY("dat")
+	{
+		@Override
+		public void save(final StorageObject object, final OutputStream output) throws IOException
+		{
+			final BinaryStorageWriter writer = new BinaryStorageWriter(new DataOutputStream(output));
+			writer.save(object);
+			if (writer.checkError())
+			{
+				throw new IOException("Could not write binary data");
+			}
+		}
+
+		@Override
+		public <T extends StorageObject> T load(final Class<? extends T> clazz, final InputStream input, final IPlugin plugin) throws ObjectLoadException
+		{
+			return new BinaryStorageReader(new DataInputStream(input)).load(clazz);
+		}
+	};
+	private final String extension;
+
+	private StorageFormat(final String extension)
+	{
+		this.extension = extension;
+	}
+
+	public String getExtension()
+	{
+		return extension;
+	}
+
+	public abstract void save(StorageObject object, OutputStream output) throws IOException;
+
+	public abstract <T extends StorageObject> T load(Class<? extends T> clazz, InputStream input, IPlugin plugin) throws ObjectLoadException;
+
+	/**
+	 * Returns the file with the same name as the given one, but the extension of this format.
+	 */
+	public File getFile(final File file)
+	{
+		final String name = file.getName();
+		final int dot = name.lastIndexOf('.');
+		return new File(file.getParentFile(), (dot < 0 ? name : name.substring(0, dot)) + "." + extension);
+	}
+
+	/**
+	 * Returns the file in this format if it exists, otherwise an existing file in another format.
+	 * If there is no file at all, the file in this format is returned.
+	 */
+	public File findFile(final File file)
+	{
+		final File ownFile = getFile(file);
+		if (ownFile.exists())
+		{
+			return ownFile;
+		}
+		for (StorageFormat format : values())
+		{
+			final File otherFile = format.getFile(file);
+			if (otherFile.exists())
+			{
+				return otherFile;
+			}
+		}
+		return ownFile;
+	}
+
+	public static boolean exists(final File file)
+	{
+		for (StorageFormat format : values())
+		{
+			if (format.getFile(file).exists())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static StorageFormat getFormat(final File file)
+	{
+		final String name = file.getName();
+		for (StorageFormat format : values())
+		{
+			if (name.endsWith("." + format.getExtension()))
+			{
+				return format;
+			}
+		}
+		return null;
+	}
+}
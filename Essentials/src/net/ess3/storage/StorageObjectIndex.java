@@ -0,0 +1,29 @@
+package net.ess3.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+
+/**
+ * The keys of a {@link StorageObjectMap}, saved next to its folder,
+ * so the folder doesn't have to be listed on every start.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class StorageObjectIndex implements StorageObject
+{
+	private long folderModified;
+	@MapValueType(Entry.class)
+	private Map<String, Entry> entries = new HashMap<String, Entry>();
+
+
+	@Data
+	@EqualsAndHashCode(callSuper = false)
+	public static class Entry implements StorageObject
+	{
+		private long lastModified;
+		private long size;
+	}
+}
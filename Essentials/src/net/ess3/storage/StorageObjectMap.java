@@ -3,12 +3,16 @@ package net.ess3.storage;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.util.concurrent.UncheckedExecutionException;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
@@ -21,22 +25,76 @@ public abstract class StorageObjectMap<I> extends CacheLoader<String, I> impleme
 {
 	protected final transient IEssentials ess;
 	private final transient File folder;
-	protected final transient Cache<String, I> cache = CacheBuilder.newBuilder().softValues().build(this);
+	private final transient File indexFile;
+	protected transient volatile Cache<String, I> cache = CacheBuilder.newBuilder().softValues().build(this);
 	protected final transient ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<String>();
+	private final transient ConcurrentMap<String, StorageObjectIndex.Entry> index = new ConcurrentHashMap<String, StorageObjectIndex.Entry>();
+	private final transient IndexWriter indexWriter = new IndexWriter();
 
 	public StorageObjectMap(final IEssentials ess, final String folderName)
 	{
 		super();
 		this.ess = ess;
 		this.folder = new File(ess.getPlugin().getDataFolder(), folderName);
+		this.indexFile = new File(ess.getPlugin().getDataFolder(), folderName + "-index." + StorageFormat.BINARY.getExtension());
 		if (!folder.exists())
 		{
 			folder.mkdirs();
 		}
-		loadAllObjectsAsync();
+		if (!loadIndex())
+		{
+			validateIndexAsync();
+		}
 	}
 
-	private void loadAllObjectsAsync()
+	/**
+	 * Reads the keys from the index file. If the folder has been changed since the index was written,
+	 * the index is checked against the folder in the background.
+	 *
+	 * @return false, if there is no usable index
+	 */
+	private boolean loadIndex()
+	{
+		if (!indexFile.exists())
+		{
+			return false;
+		}
+		StorageObjectIndex storedIndex;
+		try
+		{
+			final InputStream input = new BufferedInputStream(new FileInputStream(indexFile));
+			try
+			{
+				storedIndex = StorageFormat.BINARY.load(StorageObjectIndex.class, input, ess.getPlugin());
+			}
+			finally
+			{
+				input.close();
+			}
+		}
+		catch (IOException ex)
+		{
+			ess.getLogger().log(Level.WARNING, "Could not read index file " + indexFile, ex);
+			return false;
+		}
+		catch (ObjectLoadException ex)
+		{
+			ess.getLogger().log(Level.WARNING, "Broken index file " + indexFile, ex.getCause());
+			return false;
+		}
+		index.putAll(storedIndex.getEntries());
+		keys.addAll(storedIndex.getEntries().keySet());
+		if (storedIndex.getFolderModified() != folder.lastModified())
+		{
+			validateIndexAsync();
+		}
+		return true;
+	}
+
+	/**
+	 * Lists the folder and brings the keys up to date. Existing keys stay available while this runs.
+	 */
+	private void validateIndexAsync()
 	{
 		ess.getPlugin().scheduleAsyncDelayedTask(new Runnable()
 		{
@@ -47,28 +105,100 @@ public abstract class StorageObjectMap<I> extends CacheLoader<String, I> impleme
 				{
 					return;
 				}
-				keys.clear();
-				cache.invalidateAll();
-				for (String string : folder.list())
+				final File[] files = folder.listFiles();
+				if (files == null)
+				{
+					return;
+				}
+				final Map<String, StorageObjectIndex.Entry> found = new HashMap<String, StorageObjectIndex.Entry>();
+				for (File file : files)
 				{
 					try
 					{
-						if (!string.endsWith(".yml"))
+						final String string = file.getName();
+						final StorageFormat format = StorageFormat.getFormat(file);
+						if (format == null)
 						{
 							continue;
 						}
-						final String name = Util.decodeFileName(string.substring(0, string.length() - 4));
-						keys.add(name.toLowerCase(Locale.ENGLISH));
+						final String name = Util.decodeFileName(string.substring(0, string.length() - format.getExtension().length() - 1));
+						found.put(name.toLowerCase(Locale.ENGLISH), createEntry(file));
 					}
 					catch (InvalidNameException ex)
 					{
-						ess.getLogger().log(Level.WARNING, "Invalid filename: " + string, ex);
+						ess.getLogger().log(Level.WARNING, "Invalid filename: " + file.getName(), ex);
 					}
 				}
+				boolean changed = false;
+				for (String key : keys)
+				{
+					// Objects in the cache might not have been written yet
+					if (!found.containsKey(key) && !cache.asMap().containsKey(key))
+					{
+						keys.remove(key);
+						index.remove(key);
+						changed = true;
+					}
+				}
+				for (Map.Entry<String, StorageObjectIndex.Entry> entry : found.entrySet())
+				{
+					changed |= keys.add(entry.getKey());
+					if (!entry.getValue().equals(index.put(entry.getKey(), entry.getValue())))
+					{
+						changed = true;
+					}
+				}
+				if (changed || !indexFile.exists())
+				{
+					indexWriter.schedule();
+				}
 			}
 		});
 	}
 
+	private static StorageObjectIndex.Entry createEntry(final File file)
+	{
+		final StorageObjectIndex.Entry entry = new StorageObjectIndex.Entry();
+		entry.setLastModified(file.lastModified());
+		entry.setSize(file.length());
+		return entry;
+	}
+
+	/**
+	 * Adds the key to the index, after an object has been created or found on disk.
+	 *
+	 * @param name
+	 */
+	protected void addKey(final String name)
+	{
+		final String key = name.toLowerCase(Locale.ENGLISH);
+		final boolean added = keys.add(key);
+		if (added || !index.containsKey(key))
+		{
+			StorageObjectIndex.Entry entry;
+			try
+			{
+				entry = createEntry(StorageFormat.YAML.findFile(getStorageFile(name)));
+			}
+			catch (InvalidNameException ex)
+			{
+				entry = new StorageObjectIndex.Entry();
+			}
+			index.put(key, entry);
+			indexWriter.schedule();
+		}
+	}
+
+	private void removeKey(final String name)
+	{
+		final String key = name.toLowerCase(Locale.ENGLISH);
+		keys.remove(key);
+		if (index.remove(key) != null)
+		{
+			indexWriter.schedule();
+		}
+	}
+
 	@Override
 	public boolean objectExists(final String name)
 	{
@@ -84,26 +214,72 @@ public abstract class StorageObjectMap<I> extends CacheLoader<String, I> impleme
 		}
 		catch (ExecutionException ex)
 		{
+			checkKey(name);
 			return null;
 		}
 		catch (UncheckedExecutionException ex)
 		{
+			checkKey(name);
 			return null;
 		}
 	}
 
+	/**
+	 * Removes a key from the index, if the object could not be loaded, because its file is gone.
+	 */
+	private void checkKey(final String name)
+	{
+		try
+		{
+			if (objectExists(name) && !StorageFormat.exists(getStorageFile(name)))
+			{
+				removeKey(name);
+			}
+		}
+		catch (InvalidNameException ex)
+		{
+			removeKey(name);
+		}
+	}
+
 	@Override
 	public abstract I load(final String name) throws Exception;
 
+	/**
+	 * Replaces the cache with a new one, all cached objects will be loaded again on their next use.
+	 *
+	 * @param builder
+	 */
+	protected void setCache(final CacheBuilder<Object, Object> builder)
+	{
+		final Cache<String, I> oldCache = cache;
+		cache = builder.build(this);
+		oldCache.invalidateAll();
+	}
+
+	public CacheStats getCacheStats()
+	{
+		return cache.stats();
+	}
+
+	public int getCacheSize()
+	{
+		return cache.asMap().size();
+	}
+
 	@Override
 	public void removeObject(final String name) throws InvalidNameException
 	{
-		keys.remove(name.toLowerCase(Locale.ENGLISH));
+		removeKey(name);
 		cache.invalidate(name.toLowerCase(Locale.ENGLISH));
 		final File file = getStorageFile(name);
-		if (file.exists())
+		for (StorageFormat format : StorageFormat.values())
 		{
-			file.delete();
+			final File formatFile = format.getFile(file);
+			if (formatFile.exists())
+			{
+				formatFile.delete();
+			}
 		}
 	}
 
@@ -132,6 +308,51 @@ public abstract class StorageObjectMap<I> extends CacheLoader<String, I> impleme
 	@Override
 	public void onReload()
 	{
-		loadAllObjectsAsync();
+		cache.invalidateAll();
+		validateIndexAsync();
+	}
+
+	/**
+	 * Writes the index now. Every save changes the modification time of the folder, so this has to be called after
+	 * the last object has been written, otherwise the index is checked against the folder on the next start.
+	 */
+	public void writeIndex()
+	{
+		indexWriter.run();
+	}
+
+
+	private class IndexWriter extends AbstractDelayedYamlFileWriter
+	{
+		public IndexWriter()
+		{
+			super(ess);
+		}
+
+		@Override
+		public File getFile()
+		{
+			return indexFile;
+		}
+
+		@Override
+		public StorageFormat getFormat()
+		{
+			return StorageFormat.BINARY;
+		}
+
+		@Override
+		public StorageObject getObject()
+		{
+			final StorageObjectIndex snapshot = new StorageObjectIndex();
+			snapshot.setFolderModified(folder.lastModified());
+			snapshot.getEntries().putAll(index);
+			return snapshot;
+		}
+
+		@Override
+		public void onFinish()
+		{
+		}
 	}
 }
@@ -0,0 +1,207 @@
+package net.ess3.storage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import net.ess3.api.IEssentials;
+import net.ess3.api.IReload;
+import net.ess3.api.ISettings;
+import net.ess3.settings.General;
+
+
+/**
+ * Collects dirty storage objects and writes each of them at most once per write delay.
+ *
+ * Writers are keyed by identity, so any number of changes to the same object within the delay
+ * end up in a single serialization. The writes are done by a small pool of threads, so a burst of
+ * changes can't occupy the whole async scheduler.
+ */
+public class StorageQueue implements Runnable, IReload
+{
+	private final transient IEssentials ess;
+	private final transient ConcurrentMap<AbstractDelayedYamlFileWriter, Long> dirty = new ConcurrentHashMap<AbstractDelayedYamlFileWriter, Long>();
+	private final transient ThreadPoolExecutor executor;
+	private transient volatile long writeDelay = 5000;
+	private transient int taskId = -1;
+
+	public StorageQueue(final IEssentials ess)
+	{
+		this.ess = ess;
+		executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	public void start()
+	{
+		if (taskId == -1)
+		{
+			taskId = ess.getPlugin().scheduleAsyncRepeatingTask(this, 20, 20);
+		}
+	}
+
+	/**
+	 * Marks the object of the writer as changed, the write happens after the write delay.
+	 * If the object is already waiting to be written, this does nothing.
+	 *
+	 * @param writer
+	 */
+	public void markDirty(final AbstractDelayedYamlFileWriter writer)
+	{
+		if (executor.isShutdown())
+		{
+			writer.run();
+			return;
+		}
+		if (dirty.putIfAbsent(writer, System.currentTimeMillis()) == null)
+		{
+			writer.queued();
+		}
+		// flushAll might have drained the queue between the check and the put
+		if (executor.isShutdown() && dirty.remove(writer) != null)
+		{
+			write(writer);
+		}
+	}
+
+	/**
+	 * Writes the object of the writer now, if a write is still waiting or being done.
+	 * Has to be called before the file of the object is read into another object.
+	 *
+	 * @param writer
+	 */
+	public void flush(final AbstractDelayedYamlFileWriter writer)
+	{
+		if (dirty.remove(writer) != null)
+		{
+			write(writer);
+		}
+		else if (writer.isPending())
+		{
+			// Queued in the executor or running, the lock of the writer waits for a running write
+			writer.run();
+		}
+	}
+
+	private void write(final AbstractDelayedYamlFileWriter writer)
+	{
+		try
+		{
+			writer.run();
+		}
+		finally
+		{
+			writer.written();
+		}
+	}
+
+	public int getPendingWrites()
+	{
+		return dirty.size() + executor.getQueue().size();
+	}
+
+	@Override
+	public void run()
+	{
+		final long due = System.currentTimeMillis() - writeDelay;
+		final Iterator<Map.Entry<AbstractDelayedYamlFileWriter, Long>> iterator = dirty.entrySet().iterator();
+		while (iterator.hasNext())
+		{
+			final Map.Entry<AbstractDelayedYamlFileWriter, Long> entry = iterator.next();
+			final AbstractDelayedYamlFileWriter writer = entry.getKey();
+			if (entry.getValue() <= due && dirty.remove(writer, entry.getValue()))
+			{
+				try
+				{
+					executor.execute(new Runnable()
+					{
+						@Override
+						public void run()
+						{
+							write(writer);
+						}
+					});
+				}
+				catch (RejectedExecutionException ex)
+				{
+					// flushAll was called while this run was in progress
+					write(writer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes all pending objects on the calling thread and waits for running writes to finish.
+	 * No writes are queued after this has been called.
+	 */
+	public void flushAll()
+	{
+		if (taskId != -1)
+		{
+			ess.getPlugin().cancelTask(taskId);
+			taskId = -1;
+		}
+		executor.shutdown();
+		writeDirty();
+		try
+		{
+			if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+			{
+				ess.getLogger().log(Level.WARNING, "Timed out while waiting for storage writes to finish.");
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+		// Objects marked by writes, that were still running
+		writeDirty();
+	}
+
+	private void writeDirty()
+	{
+		final List<AbstractDelayedYamlFileWriter> pending = new ArrayList<AbstractDelayedYamlFileWriter>(dirty.keySet());
+		for (AbstractDelayedYamlFileWriter writer : pending)
+		{
+			if (dirty.remove(writer) != null)
+			{
+				write(writer);
+			}
+		}
+	}
+
+	@Override
+	public void onReload()
+	{
+		final ISettings settings = ess.getSettings();
+		settings.acquireReadLock();
+		try
+		{
+			final General general = settings.getData().getGeneral();
+			writeDelay = Math.max(0, general.getStorageWriteDelay()) * 1000L;
+			final int writers = Math.max(1, general.getStorageWriters());
+			if (writers > executor.getMaximumPoolSize())
+			{
+				executor.setMaximumPoolSize(writers);
+				executor.setCorePoolSize(writers);
+			}
+			else
+			{
+				executor.setCorePoolSize(writers);
+				executor.setMaximumPoolSize(writers);
+			}
+		}
+		finally
+		{
+			settings.unlock();
+		}
+	}
+}
@@ -3,11 +3,14 @@ package net.ess3.storage;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -23,6 +26,7 @@ public class YamlStorageWriter implements IStorageWriter
 	private transient static final Pattern NON_WORD_PATTERN = Pattern.compile("\\W");
 	private transient final PrintWriter writer;
 	private transient static final Yaml YAML = new Yaml();
+	private transient static final Map<Class, FieldWriter[]> FIELD_WRITERS = new ConcurrentHashMap<Class, FieldWriter[]>();
 
 	public YamlStorageWriter(final PrintWriter writer)
 	{
@@ -48,47 +52,76 @@ public class YamlStorageWriter implements IStorageWriter
 
 	private void writeToFile(final Object object, final int depth, final Class clazz) throws IllegalAccessException
 	{
-		for (Field field : clazz.getDeclaredFields())
+		for (FieldWriter field : getFieldWriters(clazz))
 		{
-			final int modifier = field.getModifiers();
-			if (Modifier.isPrivate(modifier) && !Modifier.isTransient(modifier) && !Modifier.isStatic(modifier))
+			final Object data = field.field.get(object);
+			if (writeKey(field, depth, data))
 			{
-				field.setAccessible(true);
-
-				final Object data = field.get(object);
-				if (writeKey(field, depth, data))
-				{
-					continue;
-				}
-				if (data instanceof StorageObject)
-				{
-					writer.println();
-					writeToFile(data, depth + 1, data.getClass());
-				}
-				else if (data instanceof Map)
-				{
-					writeMap((Map<Object, Object>)data, depth + 1);
-				}
-				else if (data instanceof Collection)
-				{
-					writeCollection((Collection<Object>)data, depth + 1);
-				}
-				else if (data instanceof StoredLocation)
-				{
-					writeLocation((StoredLocation)data, depth + 1);
-				}
-				else
-				{
-					writeScalar(data);
-				}
+				continue;
+			}
+			switch (field.type)
+			{
+			case STORAGE_OBJECT:
+				writer.println();
+				writeToFile(data, depth + 1, data.getClass());
+				break;
+			case MAP:
+				writeMap((Map<Object, Object>)data, depth + 1);
+				break;
+			case COLLECTION:
+				writeCollection((Collection<Object>)data, depth + 1);
+				break;
+			case LOCATION:
+				writeLocation((StoredLocation)data, depth + 1);
+				break;
+			case SCALAR:
+				writeScalar(data);
+				break;
+			default:
+				writeObject(data, depth);
 			}
 		}
-        writer.println();
+		writer.println();
 	}
 
-	private boolean writeKey(final Field field, final int depth, final Object data)
+	private void writeObject(final Object data, final int depth) throws IllegalAccessException
 	{
-		final boolean commentPresent = writeComment(field, depth);
+		if (data instanceof StorageObject)
+		{
+			writer.println();
+			writeToFile(data, depth + 1, data.getClass());
+		}
+		else if (data instanceof Map)
+		{
+			writeMap((Map<Object, Object>)data, depth + 1);
+		}
+		else if (data instanceof Collection)
+		{
+			writeCollection((Collection<Object>)data, depth + 1);
+		}
+		else if (data instanceof StoredLocation)
+		{
+			writeLocation((StoredLocation)data, depth + 1);
+		}
+		else
+		{
+			writeScalar(data);
+		}
+	}
+
+	private boolean writeKey(final FieldWriter field, final int depth, final Object data)
+	{
+		final boolean commentPresent = field.comments != null;
+		if (commentPresent)
+		{
+			for (String comment : field.comments)
+			{
+				writeIndention(depth);
+				writer.print("# ");
+				writer.print(comment);
+				writer.println();
+			}
+		}
 		if (data == null && !commentPresent)
 		{
 			return true;
@@ -98,8 +131,7 @@ public class YamlStorageWriter implements IStorageWriter
 		{
 			writer.print('#');
 		}
-		final String name = field.getName();
-		writer.print(name);
+		writer.print(field.name);
 		writer.print(": ");
 		if (data == null && commentPresent)
 		{
@@ -110,26 +142,96 @@ public class YamlStorageWriter implements IStorageWriter
 		return false;
 	}
 
-	private boolean writeComment(final Field field, final int depth)
+	private static FieldWriter[] getFieldWriters(final Class clazz)
 	{
-		final boolean commentPresent = field.isAnnotationPresent(Comment.class);
-		if (commentPresent)
+		FieldWriter[] fieldWriters = FIELD_WRITERS.get(clazz);
+		if (fieldWriters == null)
 		{
-			final Comment comments = field.getAnnotation(Comment.class);
-			for (String comment : comments.value())
+			final List<FieldWriter> list = new ArrayList<FieldWriter>();
+			for (Field field : clazz.getDeclaredFields())
 			{
-				final String trimmed = comment.trim();
-				if (trimmed.isEmpty())
+				final int modifier = field.getModifiers();
+				if (Modifier.isPrivate(modifier) && !Modifier.isTransient(modifier) && !Modifier.isStatic(modifier))
 				{
-					continue;
+					field.setAccessible(true);
+					list.add(new FieldWriter(field));
 				}
-				writeIndention(depth);
-				writer.print("# ");
-				writer.print(trimmed);
-				writer.println();
 			}
+			fieldWriters = list.toArray(new FieldWriter[list.size()]);
+			FIELD_WRITERS.put(clazz, fieldWriters);
+		}
+		return fieldWriters;
+	}
+
+
+	private enum FieldType
+	{
+		STORAGE_OBJECT, MAP, COLLECTION, LOCATION, SCALAR, UNKNOWN
+	}
+
+
+	/**
+	 * Everything about a field that can be figured out once per class: the accessible field,
+	 * the trimmed comment lines and how values of the declared type are written.
+	 */
+	private static class FieldWriter
+	{
+		private final transient Field field;
+		private final transient String name;
+		private final transient String[] comments;
+		private final transient FieldType type;
+
+		FieldWriter(final Field field)
+		{
+			this.field = field;
+			this.name = field.getName();
+			final Comment comment = field.getAnnotation(Comment.class);
+			if (comment == null)
+			{
+				comments = null;
+			}
+			else
+			{
+				final List<String> lines = new ArrayList<String>();
+				for (String line : comment.value())
+				{
+					final String trimmed = line.trim();
+					if (!trimmed.isEmpty())
+					{
+						lines.add(trimmed);
+					}
+				}
+				comments = lines.toArray(new String[lines.size()]);
+			}
+			this.type = getFieldType(field.getType());
+		}
+
+		private static FieldType getFieldType(final Class<?> type)
+		{
+			if (StorageObject.class.isAssignableFrom(type))
+			{
+				return FieldType.STORAGE_OBJECT;
+			}
+			if (Map.class.isAssignableFrom(type))
+			{
+				return FieldType.MAP;
+			}
+			if (Collection.class.isAssignableFrom(type))
+			{
+				return FieldType.COLLECTION;
+			}
+			if (StoredLocation.class.isAssignableFrom(type))
+			{
+				return FieldType.LOCATION;
+			}
+			if (type.isPrimitive() || type.isEnum() || String.class.equals(type) || Number.class.isAssignableFrom(type)
+				|| Boolean.class.equals(type) || Material.class.equals(type) || MaterialData.class.isAssignableFrom(type)
+				|| ItemStack.class.isAssignableFrom(type) || EnchantmentLevel.class.equals(type))
+			{
+				return FieldType.SCALAR;
+			}
+			return FieldType.UNKNOWN;
 		}
-		return commentPresent;
 	}
 
 	private void writeCollection(final Collection<Object> data, final int depth) throws IllegalAccessException
@@ -0,0 +1,113 @@
+package net.ess3.timings;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Invocation count and latency histogram of one event handler or command.
+ *
+ * The histogram has one bucket per power of two microseconds, so recording is a few atomic adds and never allocates.
+ */
+public class Timing
+{
+	private static final int BUCKETS = 24;
+	private final transient String name;
+	private final transient AtomicLong count = new AtomicLong();
+	private final transient AtomicLong total = new AtomicLong();
+	private final transient AtomicLong max = new AtomicLong();
+	private final transient AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	public Timing(final String name)
+	{
+		this.name = name;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * @param nanos time spent in one invocation
+	 */
+	public void record(final long nanos)
+	{
+		count.incrementAndGet();
+		total.addAndGet(nanos);
+		long oldMax = max.get();
+		while (nanos > oldMax && !max.compareAndSet(oldMax, nanos))
+		{
+			oldMax = max.get();
+		}
+		final long micros = nanos / 1000;
+		histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+	}
+
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	/**
+	 * @return total time in milliseconds
+	 */
+	public double getTotal()
+	{
+		return total.get() / 1000000.0;
+	}
+
+	/**
+	 * @return average time in milliseconds
+	 */
+	public double getAverage()
+	{
+		final long invocations = count.get();
+		return invocations == 0 ? 0 : total.get() / 1000000.0 / invocations;
+	}
+
+	/**
+	 * @return longest invocation in milliseconds
+	 */
+	public double getMax()
+	{
+		return max.get() / 1000000.0;
+	}
+
+	/**
+	 * Estimated from the histogram, the result is the upper bound of the bucket.
+	 *
+	 * @param percentile between 0 and 100
+	 * @return time in milliseconds
+	 */
+	public double getPercentile(final double percentile)
+	{
+		final long invocations = count.get();
+		if (invocations == 0)
+		{
+			return 0;
+		}
+		final double limit = percentile / 100 * invocations;
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			seen += histogram.get(i);
+			if (seen >= limit)
+			{
+				return Math.min((1L << i) / 1000.0, getMax());
+			}
+		}
+		return getMax();
+	}
+
+	public void reset()
+	{
+		count.set(0);
+		total.set(0);
+		max.set(0);
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			histogram.set(i, 0);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package net.ess3.timings;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.Cleanup;
+import net.ess3.api.IEssentials;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+
+/**
+ * Measures how much time the event handlers and commands of Essentials take.
+ *
+ * Listeners registered with {@link #registerEvents(Listener, Plugin)} are timed per handler method, commands are timed
+ * by the command handler. Nothing is measured until the timings are enabled, then every invocation costs two calls of
+ * System.nanoTime() and a few atomic adds.
+ */
+public class Timings
+{
+	private final transient IEssentials ess;
+	private final transient ConcurrentMap<String, Timing> timings = new ConcurrentHashMap<String, Timing>();
+	private volatile transient boolean enabled = false;
+	private volatile transient long since = System.currentTimeMillis();
+
+	public Timings(final IEssentials ess)
+	{
+		this.ess = ess;
+	}
+
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	public void setEnabled(final boolean enabled)
+	{
+		if (enabled && !this.enabled)
+		{
+			reset();
+		}
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return when the timings were enabled or reset the last time
+	 */
+	public long getSince()
+	{
+		return since;
+	}
+
+	public Timing get(final String name)
+	{
+		Timing timing = timings.get(name);
+		if (timing == null)
+		{
+			timings.putIfAbsent(name, new Timing(name));
+			timing = timings.get(name);
+		}
+		return timing;
+	}
+
+	/**
+	 * Records the time since start, if the timings are enabled.
+	 *
+	 * @param name
+	 * @param start value of System.nanoTime() before the invocation
+	 */
+	public void record(final String name, final long start)
+	{
+		if (enabled)
+		{
+			get(name).record(System.nanoTime() - start);
+		}
+	}
+
+	public void reset()
+	{
+		for (Timing timing : timings.values())
+		{
+			timing.reset();
+		}
+		since = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return all timings that were invoked, the most expensive first
+	 */
+	public List<Timing> getTimings()
+	{
+		final List<Timing> list = new ArrayList<Timing>();
+		for (Timing timing : timings.values())
+		{
+			if (timing.getCount() > 0)
+			{
+				list.add(timing);
+			}
+		}
+		Collections.sort(list, new Comparator<Timing>()
+		{
+			@Override
+			public int compare(final Timing o1, final Timing o2)
+			{
+				return Double.compare(o2.getTotal(), o1.getTotal());
+			}
+		});
+		return list;
+	}
+
+	/**
+	 * Writes all timings to a new file in the data folder.
+	 *
+	 * @return the file
+	 * @throws IOException
+	 */
+	public File dump() throws IOException
+	{
+		final File file = new File(ess.getPlugin().getDataFolder(), "timings-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".txt");
+		@Cleanup
+		final PrintWriter writer = new PrintWriter(new FileWriter(file));
+		final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		writer.println("Timings from " + dateFormat.format(new Date(since)) + " to " + dateFormat.format(new Date()));
+		writer.println("name\tcount\ttotal ms\taverage ms\t95% ms\tmax ms");
+		for (Timing timing : getTimings())
+		{
+			writer.println(String.format(Locale.ENGLISH, "%s\t%d\t%.3f\t%.3f\t%.3f\t%.3f",
+										 timing.getName(), timing.getCount(), timing.getTotal(),
+										 timing.getAverage(), timing.getPercentile(95), timing.getMax()));
+		}
+		return file;
+	}
+
+	/**
+	 * Registers all event handlers of the listener like {@link org.bukkit.plugin.PluginManager#registerEvents}, but
+	 * every handler method is timed on its own.
+	 *
+	 * @param listener
+	 * @param plugin
+	 */
+	public void registerEvents(final Listener listener, final Plugin plugin)
+	{
+		final Set<Method> methods = new HashSet<Method>();
+		methods.addAll(Arrays.asList(listener.getClass().getMethods()));
+		methods.addAll(Arrays.asList(listener.getClass().getDeclaredMethods()));
+		for (final Method method : methods)
+		{
+			final EventHandler handler = method.getAnnotation(EventHandler.class);
+			if (handler == null || method.getParameterTypes().length != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0]))
+			{
+				continue;
+			}
+			final Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+			method.setAccessible(true);
+			final String name = listener.getClass().getSimpleName() + "." + method.getName();
+			final EventExecutor executor = new EventExecutor()
+			{
+				@Override
+				public void execute(final Listener listener, final Event event) throws EventException
+				{
+					if (!eventClass.isInstance(event))
+					{
+						return;
+					}
+					try
+					{
+						if (enabled)
+						{
+							final long start = System.nanoTime();
+							try
+							{
+								method.invoke(listener, event);
+							}
+							finally
+							{
+								record(name, start);
+							}
+						}
+						else
+						{
+							method.invoke(listener, event);
+						}
+					}
+					catch (InvocationTargetException ex)
+					{
+						throw new EventException(ex.getCause());
+					}
+					catch (Throwable ex)
+					{
+						throw new EventException(ex);
+					}
+				}
+			};
+			plugin.getServer().getPluginManager().registerEvent(eventClass, listener, handler.priority(), executor, plugin, handler.ignoreCancelled());
+		}
+	}
+}
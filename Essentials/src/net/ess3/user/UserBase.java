@@ -12,6 +12,7 @@ import net.ess3.api.InvalidNameException;
 import net.ess3.permissions.Permissions;
 import net.ess3.storage.AsyncStorageObjectHolder;
 import net.ess3.storage.IStorageObjectHolder;
+import net.ess3.storage.StorageFormat;
 import net.ess3.storage.StoredLocation.WorldNotLoadedException;
 import net.ess3.utils.Util;
 import org.bukkit.Location;
@@ -160,6 +161,12 @@ public abstract class UserBase extends AsyncStorageObjectHolder<UserData> implem
 		}
 	}
 
+	@Override
+	public StorageFormat getStorageFormat()
+	{
+		return ess.getSettings().getStorageFormat();
+	}
+
 	public long getTimestamp(final UserData.TimestampType name)
 	{
 		acquireReadLock();
@@ -338,7 +345,7 @@ public abstract class UserBase extends AsyncStorageObjectHolder<UserData> implem
 		acquireReadLock();
 		try
 		{
-			return getData().getIgnore() == null ? false : getData().getIgnore().contains(user.getName().toLowerCase(Locale.ENGLISH)) && Permissions.CHAT_IGNORE_EXEMPT.isAuthorized(user);
+			return getData().getIgnore() == null ? false : getData().getIgnore().contains(user.getName().toLowerCase(Locale.ENGLISH)) && !Permissions.CHAT_IGNORE_EXEMPT.isAuthorized(user);
 		}
 		finally
 		{
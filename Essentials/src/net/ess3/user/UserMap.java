@@ -1,14 +1,29 @@
 package net.ess3.user;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import java.io.File;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 import net.ess3.api.IEssentials;
+import net.ess3.api.ISettings;
 import net.ess3.api.IUser;
 import net.ess3.api.IUserMap;
 import net.ess3.api.InvalidNameException;
+import net.ess3.permissions.Permissions;
+import net.ess3.settings.General;
+import net.ess3.storage.AsyncStorageObjectHolder;
+import net.ess3.storage.StorageFormat;
 import net.ess3.storage.StorageObjectMap;
 import net.ess3.utils.FormatUtil;
 import net.ess3.utils.Util;
@@ -17,9 +32,197 @@ import org.bukkit.entity.Player;
 
 public class UserMap extends StorageObjectMap<IUser> implements IUserMap
 {
+	private final transient ConcurrentNavigableMap<String, IUser> pinnedUsers = new ConcurrentSkipListMap<String, IUser>();
+	/**
+	 * Nicknames of pinned users, the keys are the lowercase nickname and the name separated by a null char,
+	 * so users with the same nickname don't replace each other.
+	 */
+	private final transient ConcurrentNavigableMap<String, IUser> nicknames = new ConcurrentSkipListMap<String, IUser>();
+	private final transient ConcurrentMap<String, String> nicknameKeys = new ConcurrentHashMap<String, String>();
+	/**
+	 * Reverse index of the ignore lists of pinned users, maps the ignored name to the players ignoring it.
+	 */
+	private final transient ConcurrentMap<String, Set<Player>> ignoredBy = new ConcurrentHashMap<String, Set<Player>>();
+	private final transient Map<String, Set<String>> indexedIgnoreLists = new ConcurrentHashMap<String, Set<String>>();
+
 	public UserMap(final IEssentials ess)
 	{
 		super(ess, "users");
+		setCache(createCacheBuilder());
+	}
+
+	private CacheBuilder<Object, Object> createCacheBuilder()
+	{
+		final ISettings settings = ess.getSettings();
+		settings.acquireReadLock();
+		try
+		{
+			final General general = settings.getData().getGeneral();
+			return CacheBuilder.newBuilder()
+					.maximumSize(Math.max(0, general.getUserCacheSize()))
+					.expireAfterAccess(Math.max(1, general.getUserCacheExpiry()), TimeUnit.MINUTES)
+					.removalListener(new RemovalListener<Object, Object>()
+			{
+				@Override
+				public void onRemoval(final RemovalNotification<Object, Object> notification)
+				{
+					// The next getUser reads the file again, so pending changes have to be written first
+					if (notification.getValue() instanceof AsyncStorageObjectHolder)
+					{
+						((AsyncStorageObjectHolder<?>)notification.getValue()).flushWrite();
+					}
+				}
+			});
+		}
+		finally
+		{
+			settings.unlock();
+		}
+	}
+
+	@Override
+	public void onReload()
+	{
+		setCache(createCacheBuilder());
+		super.onReload();
+		for (Player player : ess.getServer().getOnlinePlayers())
+		{
+			pinUser(getUser(player));
+		}
+	}
+
+	@Override
+	public void pinUser(final IUser user)
+	{
+		pinnedUsers.put(user.getName().toLowerCase(Locale.ENGLISH), user);
+		updateNickname(user);
+		updateIgnoredPlayers(user);
+	}
+
+	@Override
+	public void unpinUser(final IUser user)
+	{
+		final String name = user.getName().toLowerCase(Locale.ENGLISH);
+		if (pinnedUsers.remove(name, user))
+		{
+			final String key = nicknameKeys.remove(name);
+			if (key != null)
+			{
+				nicknames.remove(key);
+			}
+			removeIgnoredPlayers(name, user.getPlayer());
+		}
+	}
+
+	@Override
+	public void updateIgnoredPlayers(final IUser user)
+	{
+		final String name = user.getName().toLowerCase(Locale.ENGLISH);
+		final Player player = user.getPlayer();
+		if (pinnedUsers.get(name) != user || player == null)
+		{
+			return;
+		}
+		final Set<String> ignoreList = new HashSet<String>();
+		user.acquireReadLock();
+		try
+		{
+			if (user.getData().getIgnore() != null)
+			{
+				ignoreList.addAll(user.getData().getIgnore());
+			}
+		}
+		finally
+		{
+			user.unlock();
+		}
+		synchronized (ignoredBy)
+		{
+			removeIgnoredPlayers(name, player);
+			for (String ignored : ignoreList)
+			{
+				Set<Player> players = ignoredBy.get(ignored);
+				if (players == null)
+				{
+					players = Collections.newSetFromMap(new ConcurrentHashMap<Player, Boolean>());
+					ignoredBy.put(ignored, players);
+				}
+				players.add(player);
+			}
+			indexedIgnoreLists.put(name, ignoreList);
+		}
+	}
+
+	private void removeIgnoredPlayers(final String name, final Player player)
+	{
+		synchronized (ignoredBy)
+		{
+			final Set<String> ignoreList = indexedIgnoreLists.remove(name);
+			if (ignoreList == null || player == null)
+			{
+				return;
+			}
+			for (String ignored : ignoreList)
+			{
+				final Set<Player> players = ignoredBy.get(ignored);
+				if (players != null)
+				{
+					players.remove(player);
+					if (players.isEmpty())
+					{
+						ignoredBy.remove(ignored);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public Set<Player> getIgnoringPlayers(final IUser sender)
+	{
+		final Set<Player> players = ignoredBy.get(sender.getName().toLowerCase(Locale.ENGLISH));
+		if (players == null || Permissions.CHAT_IGNORE_EXEMPT.isAuthorized(sender))
+		{
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(players);
+	}
+
+	@Override
+	public void updateNickname(final IUser user)
+	{
+		final String name = user.getName().toLowerCase(Locale.ENGLISH);
+		if (pinnedUsers.get(name) != user)
+		{
+			return;
+		}
+		String nickname;
+		user.acquireReadLock();
+		try
+		{
+			nickname = user.getData().getNickname();
+		}
+		finally
+		{
+			user.unlock();
+		}
+		final String oldKey = nicknameKeys.remove(name);
+		if (oldKey != null)
+		{
+			nicknames.remove(oldKey);
+		}
+		if (nickname != null && !nickname.isEmpty())
+		{
+			final String key = FormatUtil.stripFormat(nickname).toLowerCase(Locale.ENGLISH) + '\0' + name;
+			nicknames.put(key, user);
+			nicknameKeys.put(name, key);
+		}
+	}
+
+	@Override
+	public int getPinnedUsers()
+	{
+		return pinnedUsers.size();
 	}
 
 	@Override
@@ -31,7 +234,8 @@ public class UserMap extends StorageObjectMap<IUser> implements IUserMap
 	@Override
 	public IUser getUser(final String name)
 	{
-		return getObject(name);
+		final IUser user = pinnedUsers.get(name.toLowerCase(Locale.ENGLISH));
+		return user == null ? getObject(name) : user;
 	}
 
 	@Override
@@ -52,12 +256,13 @@ public class UserMap extends StorageObjectMap<IUser> implements IUserMap
 		}
 		Player player = ess.getServer().getPlayerExact(name);
 		if (player != null) {
+			addKey(name);
 			return new User(ess.getServer().getOfflinePlayer(player.getName()), ess);
 		}
 		final File userFile = getUserFile(name);
-		if (userFile.exists())
+		if (StorageFormat.exists(userFile))
 		{
-			keys.add(name.toLowerCase(Locale.ENGLISH));
+			addKey(name);
 			return new User(ess.getServer().getOfflinePlayer(name), ess);
 		}
 		throw new Exception("User not found!");
@@ -90,7 +295,12 @@ public class UserMap extends StorageObjectMap<IUser> implements IUserMap
 	@Override
 	public IUser getUser(final Player player)
 	{
-		IUser user = getObject(player.getName());
+		IUser user = pinnedUsers.get(player.getName().toLowerCase(Locale.ENGLISH));
+		if (user != null)
+		{
+			return user;
+		}
+		user = getObject(player.getName());
 		if (user == null)
 		{
 			user = new User(player, ess);
@@ -144,94 +354,63 @@ public class UserMap extends StorageObjectMap<IUser> implements IUserMap
 			{
 				searchString = searchString.substring(0, searchString.length() - 1);
 			}
-			Player match = null;
-			for (Player player : ess.getServer().getOnlinePlayers())
+			final boolean single = !multimatching && !multisearch;
+			IUser match = pinnedUsers.get(searchString);
+			if (match != null && !isVisible(match, includeHidden, includeOffline))
 			{
-				if (player.getName().equalsIgnoreCase(searchString)
-					&& (includeHidden || (includeOffline && getUser(player).isHidden())))
-				{
-					match = player;
-					break;
-				}
+				match = null;
 			}
 			if (match != null)
 			{
-				if (multimatching || multisearch)
-				{
-					result.add(getUser(match));
-				}
-				else
+				if (single)
 				{
-					return Collections.singleton(getUser(match));
+					return Collections.singleton(match);
 				}
+				result.add(match);
 			}
-			for (Player player : ess.getServer().getOnlinePlayers())
+			for (IUser user : nicknames.subMap(searchString + '\0', searchString + '\1').values())
 			{
-				final String nickname = getUser(player).getData().getNickname();
-				if (nickname != null && !nickname.isEmpty()
-					&& nickname.equalsIgnoreCase(searchString)
-					&& (includeHidden || (includeOffline && getUser(player).isHidden())))
+				if (isVisible(user, includeHidden, includeOffline))
 				{
-					if (multimatching || multisearch)
-					{
-						result.add(getUser(player));
-					}
-					else
+					if (single)
 					{
-						return Collections.singleton(getUser(player));
+						return Collections.singleton(user);
 					}
+					result.add(user);
 				}
 			}
-			if (includeOffline)
+			if (includeOffline && objectExists(searchString))
 			{
-				IUser matchu = null;
-				for (String playerName : getAllUniqueUsers())
-				{
-					if (playerName.equals(searchString))
-					{
-						matchu = getUser(playerName);
-						break;
-					}
-				}
+				final IUser matchu = getUser(searchString);
 				if (matchu != null)
 				{
-					if (multimatching || multisearch)
-					{
-						result.add(matchu);
-					}
-					else
+					if (single)
 					{
 						return Collections.singleton(matchu);
 					}
+					result.add(matchu);
 				}
 			}
 			if (multimatching || match == null)
 			{
-				for (Player player : ess.getServer().getOnlinePlayers())
+				IUser prefixMatch = findPrefix(pinnedUsers, searchString, includeHidden, includeOffline);
+				if (prefixMatch == null)
 				{
-					if (player.getName().toLowerCase(Locale.ENGLISH).startsWith(searchString)
-						&& (includeHidden || (includeOffline && getUser(player).isHidden())))
-					{
-						result.add(getUser(player));
-						break;
-					}
-					final String nickname = getUser(player).getData().getNickname();
-					if (nickname != null && !nickname.isEmpty()
-						&& nickname.toLowerCase(Locale.ENGLISH).startsWith(searchString)
-						&& (includeHidden || (includeOffline && getUser(player).isHidden())))
-					{
-						result.add(getUser(player));
-						break;
-					}
+					prefixMatch = findPrefix(nicknames, searchString, includeHidden, includeOffline);
+				}
+				if (prefixMatch != null)
+				{
+					result.add(prefixMatch);
 				}
 				if (includeOffline)
 				{
-					for (String playerName : getAllUniqueUsers())
+					final String playerName = keys.ceiling(searchString);
+					if (playerName != null && playerName.startsWith(searchString))
 					{
-						if (playerName.startsWith(searchString))
+						final IUser matchu = getUser(playerName);
+						if (matchu != null)
 						{
-							result.add(getUser(playerName));
-							break;
+							result.add(matchu);
 						}
 					}
 				}
@@ -240,6 +419,34 @@ public class UserMap extends StorageObjectMap<IUser> implements IUserMap
 		return result;
 	}
 
+	/**
+	 * Returns the first visible user in the sorted map, whose key starts with the prefix.
+	 */
+	private IUser findPrefix(final ConcurrentNavigableMap<String, IUser> map, final String prefix, final boolean includeHidden, final boolean includeOffline)
+	{
+		for (Map.Entry<String, IUser> entry : map.tailMap(prefix).entrySet())
+		{
+			if (!entry.getKey().startsWith(prefix))
+			{
+				break;
+			}
+			if (isVisible(entry.getValue(), includeHidden, includeOffline))
+			{
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Hidden users are only found, if hidden users are included, or if offline users are included,
+	 * as a hidden user looks like an offline user to others.
+	 */
+	private boolean isVisible(final IUser user, final boolean includeHidden, final boolean includeOffline)
+	{
+		return includeHidden || includeOffline || !user.isHidden();
+	}
+
 	private String getNickNamePrefix()
 	{
 		ess.getSettings().acquireReadLock();
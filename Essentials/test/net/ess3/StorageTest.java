@@ -2,6 +2,8 @@ package net.ess3;
 
 import java.io.*;
 import net.ess3.settings.Settings;
+import net.ess3.storage.BinaryStorageReader;
+import net.ess3.storage.BinaryStorageWriter;
 import net.ess3.storage.ObjectLoadException;
 import net.ess3.storage.StorageObject;
 import net.ess3.storage.YamlStorageReader;
@@ -110,6 +112,45 @@ public class StorageTest extends EssentialsTest
 
 	}
 
+	@Test
+	public void testBinaryUserdata()
+	{
+		try
+		{
+			ExecuteTimer ext = new ExecuteTimer();
+			ext.start();
+			final net.ess3.user.UserData userdata = new net.ess3.user.UserData();
+			for (int j = 0; j < 100; j++)
+			{
+				userdata.getHomes().put("home" + j, new net.ess3.storage.StoredLocation("world", j, j, j));
+			}
+			userdata.setNickname("nick");
+			userdata.setMoney(12.5);
+			userdata.setGodmode(true);
+			userdata.getTimestamps().put(net.ess3.user.UserData.TimestampType.LOGIN, 1234L);
+			ext.mark("create user");
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			final BinaryStorageWriter writer = new BinaryStorageWriter(new DataOutputStream(baos));
+			writer.save(userdata);
+			assertFalse(writer.checkError());
+			ext.mark("write user");
+			final DataInputStream input = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+			final net.ess3.user.UserData userdata2 = new BinaryStorageReader(input).load(net.ess3.user.UserData.class);
+			ext.mark("reload user");
+			assertEquals("nick", userdata2.getNickname());
+			assertEquals(12.5, userdata2.getMoney());
+			assertTrue(userdata2.isGodmode());
+			assertEquals(100, userdata2.getHomes().size());
+			assertEquals(50.0, userdata2.getHomes().get("home50").getX());
+			assertEquals(Long.valueOf(1234L), userdata2.getTimestamps().get(net.ess3.user.UserData.TimestampType.LOGIN));
+			System.out.println(ext.end());
+		}
+		catch (ObjectLoadException ex)
+		{
+			fail(ex.getMessage());
+		}
+	}
+
 	/*@Test
 	public void testOldUserdata()
 	{
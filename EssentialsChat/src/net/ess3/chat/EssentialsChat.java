@@ -1,12 +1,12 @@
 package net.ess3.chat;
 
 import static net.ess3.I18n._;
+import com.google.common.collect.MapMaker;
 import net.ess3.api.IEssentials;
 import net.ess3.chat.listenerlevel.EssentialsChatPlayerListenerHighest;
 import net.ess3.chat.listenerlevel.EssentialsChatPlayerListenerLowest;
 import net.ess3.chat.listenerlevel.EssentialsChatPlayerListenerNormal;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.ess3.api.IPlugin;
@@ -35,16 +35,18 @@ public class EssentialsChat extends JavaPlugin
 			return;
 		}
 
-		final Map<PlayerChatEvent, ChatStore> chatStore = new HashMap<PlayerChatEvent, ChatStore>();
+		final ConcurrentMap<PlayerChatEvent, ChatStore> chatStore = new MapMaker().weakKeys().makeMap();
 
 		final EssentialsChatPlayerListenerLowest playerListenerLowest = new EssentialsChatPlayerListenerLowest(getServer(), ess, chatStore);
 		final EssentialsChatPlayerListenerNormal playerListenerNormal = new EssentialsChatPlayerListenerNormal(getServer(), ess, chatStore);
 		final EssentialsChatPlayerListenerHighest playerListenerHighest = new EssentialsChatPlayerListenerHighest(getServer(), ess, chatStore);
-		pluginManager.registerEvents(playerListenerLowest, this);
-		pluginManager.registerEvents(playerListenerNormal, this);
-		pluginManager.registerEvents(playerListenerHighest, this);
+		ess.getTimings().registerEvents(playerListenerLowest, this);
+		ess.getTimings().registerEvents(playerListenerNormal, this);
+		ess.getTimings().registerEvents(playerListenerHighest, this);
 
-		final EssentialsLocalChatEventListener localChatListener = new EssentialsLocalChatEventListener(getServer(), ess);
-		pluginManager.registerEvents(localChatListener, this);
+		final LocalChatGrid localChatGrid = new LocalChatGrid(getServer());
+		ess.getTimings().registerEvents(localChatGrid, this);
+		final EssentialsLocalChatEventListener localChatListener = new EssentialsLocalChatEventListener(getServer(), ess, localChatGrid);
+		ess.getTimings().registerEvents(localChatListener, this);
 	}
 }
@@ -10,7 +10,7 @@ import net.ess3.economy.Trade;
 import net.ess3.permissions.Permissions;
 import net.ess3.utils.Util;
 import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 import net.ess3.utils.FormatUtil;
 import org.bukkit.Server;
@@ -25,11 +25,15 @@ public abstract class EssentialsChatPlayer implements Listener
 	protected transient IEssentials ess;
 	protected final static Logger LOGGER = Logger.getLogger("Minecraft");
 	protected final transient Server server;
-	protected final transient Map<PlayerChatEvent, ChatStore> chatStorage;
+	/**
+	 * State of the events between the listener levels, the map has weak identity keys,
+	 * so events that never reach the highest level don't leak.
+	 */
+	protected final transient ConcurrentMap<PlayerChatEvent, ChatStore> chatStorage;
 
 	public EssentialsChatPlayer(final Server server,
 								final IEssentials ess,
-								final Map<PlayerChatEvent, ChatStore> chatStorage)
+								final ConcurrentMap<PlayerChatEvent, ChatStore> chatStorage)
 	{
 		this.ess = ess;
 		this.server = server;
@@ -40,19 +44,35 @@ public abstract class EssentialsChatPlayer implements Listener
 	{
 	}
 
+	/**
+	 * Returns the state of the event, it is created by the first listener that needs it.
+	 * This also covers events, that were cancelled on the lowest level and uncancelled later.
+	 */
 	public ChatStore getChatStore(final PlayerChatEvent event)
 	{
-		return chatStorage.get(event);
-	}
-
-	public void setChatStore(final PlayerChatEvent event, final ChatStore chatStore)
-	{
-		chatStorage.put(event, chatStore);
+		ChatStore chatStore = chatStorage.get(event);
+		if (chatStore == null)
+		{
+			final IUser user = ess.getUserMap().getUser(event.getPlayer());
+			final ChatStore newChatStore = new ChatStore(ess, user, getChatType(event.getMessage()));
+			chatStore = chatStorage.putIfAbsent(event, newChatStore);
+			if (chatStore == null)
+			{
+				chatStore = newChatStore;
+			}
+		}
+		return chatStore;
 	}
 
 	public ChatStore delChatStore(final PlayerChatEvent event)
 	{
-		return chatStorage.remove(event);
+		final ChatStore chatStore = chatStorage.remove(event);
+		if (chatStore == null)
+		{
+			final IUser user = ess.getUserMap().getUser(event.getPlayer());
+			return new ChatStore(ess, user, getChatType(event.getMessage()));
+		}
+		return chatStore;
 	}
 
 	protected void chargeChat(final PlayerChatEvent event, final ChatStore chatStore)
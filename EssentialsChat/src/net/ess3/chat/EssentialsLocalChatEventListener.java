@@ -3,8 +3,8 @@ package net.ess3.chat;
 import static net.ess3.I18n._;
 import net.ess3.api.IEssentials;
 import net.ess3.api.IUser;
-import net.ess3.permissions.Permissions;
-import java.util.logging.Logger;
+import java.util.HashSet;
+import java.util.Set;
 import org.bukkit.Location;
 import org.bukkit.Server;
 import org.bukkit.World;
@@ -18,11 +18,13 @@ public class EssentialsLocalChatEventListener implements Listener
 {
 	protected transient IEssentials ess;
 	protected final transient Server server;
+	private final transient LocalChatGrid grid;
 
-	public EssentialsLocalChatEventListener(final Server server, final IEssentials ess)
+	public EssentialsLocalChatEventListener(final Server server, final IEssentials ess, final LocalChatGrid grid)
 	{
 		this.ess = ess;
 		this.server = server;
+		this.grid = grid;
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
@@ -31,40 +33,48 @@ public class EssentialsLocalChatEventListener implements Listener
 		final Player sender = event.getPlayer();
 		final Location loc = sender.getLocation();
 		final World world = loc.getWorld();
+		final IUser senderUser = ess.getUserMap().getUser(sender);
+		final String type = _("chatTypeLocal");
+		final String formatted = String.format(event.getFormat(), sender.getDisplayName(), event.getMessage());
+		final String message = type.concat(formatted);
 
-		for (Player onlinePlayer : server.getOnlinePlayers())
+		final Set<Player> recipients = new HashSet<Player>();
+		recipients.add(sender);
+		for (Player player : grid.getNearbyPlayers(loc, Math.sqrt(event.getRadius())))
 		{
-			String type = _("chatTypeLocal");
-			final IUser user = ess.getUserMap().getUser(onlinePlayer);
-			if (user.isIgnoringPlayer(ess.getUserMap().getUser(sender)))
+			final Location playerLoc = player.getLocation();
+			if (playerLoc.getWorld() == world && playerLoc.distanceSquared(loc) <= event.getRadius())
+			{
+				recipients.add(player);
+			}
+		}
+		for (Player player : recipients)
+		{
+			sendMessage(player, senderUser, message);
+		}
+
+		// The permission is checked for every message, so it applies as soon as it is granted or revoked
+		String spyMessage = null;
+		for (Player spy : server.getOnlinePlayers())
+		{
+			if (recipients.contains(spy) || !ChatPermissions.getPermission("spy").isAuthorized(spy))
 			{
 				continue;
 			}
-			if (!user.equals(sender))
+			if (spyMessage == null)
 			{
-				boolean abort = false;
-				final Location playerLoc = user.getPlayer().getLocation();
-				if (playerLoc.getWorld() != world)
-				{
-					abort = true;
-				}
-				final double delta = playerLoc.distanceSquared(loc);
-
-				if (delta > event.getRadius())
-				{
-					abort = true;
-				}
-
-				if (abort)
-				{
-					if (ChatPermissions.getPermission("spy").isAuthorized(user))
-					{
-						type = type.concat(_("chatTypeSpy"));
-					}
-				}
+				spyMessage = type.concat(_("chatTypeSpy")).concat(formatted);
 			}
-			final String message = type.concat(String.format(event.getFormat(), sender.getDisplayName(), event.getMessage()));
+			sendMessage(spy, senderUser, spyMessage);
+		}
+	}
+
+	private void sendMessage(final Player player, final IUser sender, final String message)
+	{
+		final IUser user = ess.getUserMap().getUser(player);
+		if (!user.isIgnoringPlayer(sender))
+		{
 			user.sendMessage(message);
 		}
 	}
-}
\ No newline at end of file
+}
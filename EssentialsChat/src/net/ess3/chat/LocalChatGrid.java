@@ -0,0 +1,203 @@
+package net.ess3.chat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.*;
+
+
+/**
+ * Sorts the online players into cells of one chunk per world, so local chat only has to look at players nearby.
+ *
+ * The cells are updated when a player enters another chunk.
+ */
+public class LocalChatGrid implements Listener
+{
+	private static final int CELL_SHIFT = 4;
+	private final transient ConcurrentMap<String, ConcurrentMap<Long, Set<Player>>> worlds = new ConcurrentHashMap<String, ConcurrentMap<Long, Set<Player>>>();
+	private final transient ConcurrentMap<Player, Cell> cells = new ConcurrentHashMap<Player, Cell>();
+
+
+	private static final class Cell
+	{
+		private final transient String world;
+		private final transient int x;
+		private final transient int z;
+
+		public Cell(final String world, final int x, final int z)
+		{
+			this.world = world;
+			this.x = x;
+			this.z = z;
+		}
+
+		public boolean isAt(final Location location)
+		{
+			return (location.getBlockX() >> CELL_SHIFT) == x && (location.getBlockZ() >> CELL_SHIFT) == z && location.getWorld().getName().equals(world);
+		}
+	}
+
+	public LocalChatGrid(final Server server)
+	{
+		for (Player player : server.getOnlinePlayers())
+		{
+			update(player, player.getLocation());
+		}
+	}
+
+	private static long getKey(final int x, final int z)
+	{
+		return ((long)x << 32) | (z & 0xFFFFFFFFL);
+	}
+
+	private void update(final Player player, final Location location)
+	{
+		final Cell oldCell = cells.get(player);
+		if (oldCell != null && oldCell.isAt(location))
+		{
+			return;
+		}
+		final Cell cell = new Cell(location.getWorld().getName(), location.getBlockX() >> CELL_SHIFT, location.getBlockZ() >> CELL_SHIFT);
+		cells.put(player, cell);
+		if (oldCell != null)
+		{
+			removeFromCell(player, oldCell);
+		}
+		ConcurrentMap<Long, Set<Player>> world = worlds.get(cell.world);
+		if (world == null)
+		{
+			worlds.putIfAbsent(cell.world, new ConcurrentHashMap<Long, Set<Player>>());
+			world = worlds.get(cell.world);
+		}
+		final Long key = getKey(cell.x, cell.z);
+		Set<Player> players = world.get(key);
+		if (players == null)
+		{
+			world.putIfAbsent(key, Collections.newSetFromMap(new ConcurrentHashMap<Player, Boolean>()));
+			players = world.get(key);
+		}
+		players.add(player);
+	}
+
+	private void removeFromCell(final Player player, final Cell cell)
+	{
+		final ConcurrentMap<Long, Set<Player>> world = worlds.get(cell.world);
+		if (world == null)
+		{
+			return;
+		}
+		final Long key = getKey(cell.x, cell.z);
+		final Set<Player> players = world.get(key);
+		if (players != null)
+		{
+			players.remove(player);
+			if (players.isEmpty())
+			{
+				world.remove(key, players);
+			}
+		}
+	}
+
+	private void remove(final Player player)
+	{
+		final Cell cell = cells.remove(player);
+		if (cell != null)
+		{
+			removeFromCell(player, cell);
+		}
+	}
+
+	/**
+	 * Returns the players, that could be inside the radius. The distance still has to be checked.
+	 *
+	 * @param location center
+	 * @param radius radius in blocks
+	 * @return
+	 */
+	public Collection<Player> getNearbyPlayers(final Location location, final double radius)
+	{
+		final ConcurrentMap<Long, Set<Player>> world = worlds.get(location.getWorld().getName());
+		if (world == null)
+		{
+			return Collections.emptyList();
+		}
+		final int minX = (int)Math.floor(location.getX() - radius) >> CELL_SHIFT;
+		final int maxX = (int)Math.floor(location.getX() + radius) >> CELL_SHIFT;
+		final int minZ = (int)Math.floor(location.getZ() - radius) >> CELL_SHIFT;
+		final int maxZ = (int)Math.floor(location.getZ() + radius) >> CELL_SHIFT;
+		final List<Player> result = new ArrayList<Player>();
+		if ((long)(maxX - minX + 1) * (maxZ - minZ + 1) > world.size())
+		{
+			for (Set<Player> players : world.values())
+			{
+				result.addAll(players);
+			}
+			return result;
+		}
+		for (int x = minX; x <= maxX; x++)
+		{
+			for (int z = minZ; z <= maxZ; z++)
+			{
+				final Set<Player> players = world.get(getKey(x, z));
+				if (players != null)
+				{
+					result.addAll(players);
+				}
+			}
+		}
+		return result;
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerJoin(final PlayerJoinEvent event)
+	{
+		update(event.getPlayer(), event.getPlayer().getLocation());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerQuit(final PlayerQuitEvent event)
+	{
+		remove(event.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onPlayerMove(final PlayerMoveEvent event)
+	{
+		final Location from = event.getFrom();
+		final Location to = event.getTo();
+		if ((from.getBlockX() >> CELL_SHIFT) != (to.getBlockX() >> CELL_SHIFT)
+			|| (from.getBlockZ() >> CELL_SHIFT) != (to.getBlockZ() >> CELL_SHIFT)
+			|| from.getWorld() != to.getWorld())
+		{
+			update(event.getPlayer(), to);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onPlayerTeleport(final PlayerTeleportEvent event)
+	{
+		update(event.getPlayer(), event.getTo());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerChangedWorld(final PlayerChangedWorldEvent event)
+	{
+		update(event.getPlayer(), event.getPlayer().getLocation());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerRespawn(final PlayerRespawnEvent event)
+	{
+		update(event.getPlayer(), event.getRespawnLocation());
+	}
+}
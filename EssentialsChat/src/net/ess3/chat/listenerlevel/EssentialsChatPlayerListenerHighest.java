@@ -3,7 +3,7 @@ package net.ess3.chat.listenerlevel;
 import net.ess3.api.IEssentials;
 import net.ess3.chat.ChatStore;
 import net.ess3.chat.EssentialsChatPlayer;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import org.bukkit.Server;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -14,7 +14,7 @@ public class EssentialsChatPlayerListenerHighest extends EssentialsChatPlayer
 {
 	public EssentialsChatPlayerListenerHighest(final Server server,
 											   final IEssentials ess,
-											   final Map<PlayerChatEvent, ChatStore> chatStorage)
+											   final ConcurrentMap<PlayerChatEvent, ChatStore> chatStorage)
 	{
 		super(server, ess, chatStorage);
 	}
@@ -1,10 +1,9 @@
 package net.ess3.chat.listenerlevel;
 
 import net.ess3.api.IEssentials;
-import net.ess3.api.IUser;
 import net.ess3.chat.ChatStore;
 import net.ess3.chat.EssentialsChatPlayer;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import org.bukkit.Server;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -15,7 +14,7 @@ public class EssentialsChatPlayerListenerLowest extends EssentialsChatPlayer
 {
 	public EssentialsChatPlayerListenerLowest(final Server server,
 											  final IEssentials ess,
-											  final Map<PlayerChatEvent, ChatStore> chatStorage)
+											  final ConcurrentMap<PlayerChatEvent, ChatStore> chatStorage)
 	{
 		super(server, ess, chatStorage);
 	}
@@ -28,9 +27,7 @@ public class EssentialsChatPlayerListenerLowest extends EssentialsChatPlayer
 		{
 			return;
 		}
-		final IUser user = ess.getUserMap().getUser(event.getPlayer());
-		final ChatStore chatStore = new ChatStore(ess, user, getChatType(event.getMessage()));
-		setChatStore(event, chatStore);
+		final ChatStore chatStore = getChatStore(event);
 		formatChat(event, chatStore);
 	}
 }
\ No newline at end of file
@@ -27,6 +27,9 @@ import java.io.RandomAccessFile;
 import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.StringTokenizer;
@@ -95,6 +98,11 @@ public class LookupService {
     int dboptions;
     byte dbbuffer[];
     byte index_cache[];
+    /**
+     * The database file mapped into memory, only used with GEOIP_MMAP_CACHE.
+     * Readers only use absolute gets, so they never change the buffer and need no lock.
+     */
+    MappedByteBuffer mapped;
     long mtime;
     int last_netmask;
     private final static int US_OFFSET = 1;
@@ -110,6 +118,7 @@ public class LookupService {
     public final static int GEOIP_MEMORY_CACHE = 1;
     public final static int GEOIP_CHECK_CACHE = 2;
     public final static int GEOIP_INDEX_CACHE = 4;
+    public final static int GEOIP_MMAP_CACHE = 8;
     public final static int GEOIP_UNKNOWN_SPEED = 0;
     public final static int GEOIP_DIALUP_SPEED = 1;
     public final static int GEOIP_CABLEDSL_SPEED = 2;
@@ -126,6 +135,16 @@ public class LookupService {
 
     private final Country UNKNOWN_COUNTRY = new Country("--", "N/A");
 
+    /**
+     * Record buffer of the calling thread, for lookups without lock.
+     */
+    private final ThreadLocal<byte[]> recordBuffer = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[FULL_RECORD_LENGTH];
+        }
+    };
+
     private static final HashMap hashmapcountryCodetoindex = new HashMap(512);
     private static final HashMap hashmapcountryNametoindex = new HashMap(512);
     private static final String[] countryCode = {
@@ -295,6 +314,7 @@ public class LookupService {
      * @param options database flags to use when opening the database
      * GEOIP_STANDARD read database from disk
      * GEOIP_MEMORY_CACHE cache the database in RAM and read it from RAM
+     * GEOIP_MMAP_CACHE map the database into memory, lookups don't lock
      * @throws java.io.IOException if an error occured creating the lookup service
      *      from the database file.
      */
@@ -380,6 +400,13 @@ public class LookupService {
 	    file.readFully(dbbuffer,0,l);
 	    databaseInfo = this.getDatabaseInfo();
 	    file.close();
+	} else if ((dboptions & GEOIP_MMAP_CACHE) != 0) {
+	    // The mapping stays valid after the file is closed.
+	    mapped = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+	    databaseInfo = this.getDatabaseInfo();
+	    file.close();
+	    file = null;
+	    return;
 	}
         if ((dboptions & GEOIP_INDEX_CACHE) != 0) {
           int l = databaseSegments[0] * recordLength * 2;
@@ -402,6 +429,7 @@ public class LookupService {
 		file.close();
 	    }
             file = null;
+            mapped = null;
         }
         catch (Exception e) { }
     }
@@ -446,7 +474,7 @@ public class LookupService {
      * @param ipAddress the IP address.
      * @return the country the IP address is from.
      */
-    public synchronized Country getCountry(InetAddress ipAddress) {
+    public Country getCountry(InetAddress ipAddress) {
         return getCountry(bytesToLong(ipAddress.getAddress()));
     }
 
@@ -457,7 +485,7 @@ public class LookupService {
      * @return the country the IP address is from.
      */
     public Country getCountryV6(InetAddress addr) {
-        if (file == null && (dboptions & GEOIP_MEMORY_CACHE) == 0) {
+        if (file == null && mapped == null && (dboptions & GEOIP_MEMORY_CACHE) == 0) {
             throw new IllegalStateException("Database has been closed.");
         }
         int ret = seekCountryV6(addr) - COUNTRY_BEGIN;
@@ -476,7 +504,7 @@ public class LookupService {
      * @return the country the IP address is from.
      */
     public Country getCountry(long ipAddress) {
-        if (file == null && (dboptions & GEOIP_MEMORY_CACHE) == 0) {
+        if (file == null && mapped == null && (dboptions & GEOIP_MEMORY_CACHE) == 0) {
             throw new IllegalStateException("Database has been closed.");
         }
         int ret = seekCountry(ipAddress) - COUNTRY_BEGIN;
@@ -503,8 +531,8 @@ public class LookupService {
         return getID(bytesToLong(ipAddress.getAddress()));
     }
 
-    public synchronized int getID(long ipAddress) {
-        if (file == null && (dboptions & GEOIP_MEMORY_CACHE) == 0) {
+    public int getID(long ipAddress) {
+        if (file == null && mapped == null && (dboptions & GEOIP_MEMORY_CACHE) == 0) {
             throw new IllegalStateException("Database has been closed.");
         }
 	int ret = seekCountry(ipAddress) - databaseSegments[0];
@@ -754,9 +782,9 @@ public class LookupService {
 	return record;
     }
 
-    public synchronized Location getLocation(long ipnum) {
+    public Location getLocation(long ipnum) {
         int record_pointer;
-        byte record_buf[] = new byte[FULL_RECORD_LENGTH];
+        byte record_buf[] = mapped != null ? recordBuffer.get() : new byte[FULL_RECORD_LENGTH];
         int record_buf_offset = 0;
         Location record = new Location();
         int str_length = 0;
@@ -770,13 +798,18 @@ public class LookupService {
             }
             record_pointer = seek_country + (2 * recordLength - 1) * databaseSegments[0];
 
-            if ((dboptions & GEOIP_MEMORY_CACHE) == 1) {
+            if (mapped != null) {
+                //read from the mapped file
+                readMapped(record_pointer, record_buf);
+            } else if ((dboptions & GEOIP_MEMORY_CACHE) == 1) {
                 //read from memory
 		System.arraycopy(dbbuffer, record_pointer, record_buf, 0, Math.min(dbbuffer.length - record_pointer, FULL_RECORD_LENGTH));
 } else {
                 //read from disk
-                file.seek(record_pointer);
-                file.readFully(record_buf);
+                synchronized (this) {
+                    file.seek(record_pointer);
+                    file.readFully(record_buf);
+                }
             }
 
             // get country
@@ -871,7 +904,10 @@ public class LookupService {
             }
 
             record_pointer = seek_org + (2 * recordLength - 1) * databaseSegments[0];
-            if ((dboptions & GEOIP_MEMORY_CACHE) == 1) {
+            if (mapped != null) {
+                //read from the mapped file
+                readMapped(record_pointer, buf);
+            } else if ((dboptions & GEOIP_MEMORY_CACHE) == 1) {
                 //read from memory
 		System.arraycopy(dbbuffer, record_pointer, buf, 0, Math.min(dbbuffer.length - record_pointer, MAX_ORG_RECORD_LENGTH));
             } else {
@@ -904,7 +940,10 @@ public class LookupService {
         int offset = 0;
         _check_mtime();
         for (int depth = 127; depth >= 0; depth--) {
-            if ((dboptions & GEOIP_MEMORY_CACHE) == 1) {
+            if (mapped != null) {
+                //read from the mapped file
+                readMapped(2 * recordLength * offset, buf);
+            } else if ((dboptions & GEOIP_MEMORY_CACHE) == 1) {
 		//read from memory
                 for (int i = 0;i < 2 * MAX_RECORD_LENGTH;i++) {
 		    buf[i] = dbbuffer[(2 * recordLength * offset)+i];
@@ -964,7 +1003,51 @@ public class LookupService {
      * @param ipAddress the ip address to find in long format.
      * @return the country index.
      */
-    private synchronized int seekCountry(long ipAddress) {
+    private int seekCountry(long ipAddress) {
+        if (mapped != null) {
+            return seekCountryMapped(ipAddress);
+        }
+        return seekCountryLocked(ipAddress);
+    }
+
+    /**
+     * Walks the tree in the mapped file, reading the records in place.
+     *
+     * @param ipAddress the ip address to find in long format.
+     * @return the country index.
+     */
+    private int seekCountryMapped(long ipAddress) {
+        final MappedByteBuffer buffer = mapped;
+        int offset = 0;
+        for (int depth = 31; depth >= 0; depth--) {
+            int pointer = 2 * recordLength * offset;
+            if ((ipAddress & (1 << depth)) > 0) {
+                pointer += recordLength;
+            }
+            int x = 0;
+            for (int j = 0; j < recordLength; j++) {
+                x += (buffer.get(pointer + j) & 0xFF) << (j * 8);
+            }
+            if (x >= databaseSegments[0]) {
+                last_netmask = 32 - depth;
+                return x;
+            }
+            offset = x;
+        }
+
+        // shouldn't reach here
+        System.err.println("Error seeking country while seeking " + ipAddress);
+        return 0;
+    }
+
+    /**
+     * Finds the country index value given an IP address, reading from
+     * memory, the index cache or the disk.
+     *
+     * @param ipAddress the ip address to find in long format.
+     * @return the country index.
+     */
+    private synchronized int seekCountryLocked(long ipAddress) {
 	byte [] buf = new byte[2 * MAX_RECORD_LENGTH];
 	int [] x = new int[2];
         int offset = 0;
@@ -1040,6 +1123,18 @@ public class LookupService {
         return ipnum;
     }
 
+    /**
+     * Copies a record out of the mapped file, the rest of the buffer is cleared.
+     */
+    private void readMapped(int pointer, byte[] buf) {
+        final MappedByteBuffer buffer = mapped;
+        int length = Math.max(0, Math.min(buffer.limit() - pointer, buf.length));
+        for (int i = 0; i < length; i++) {
+            buf[i] = buffer.get(pointer + i);
+        }
+        Arrays.fill(buf, length, buf.length, (byte) 0);
+    }
+
     private static int unsignedByteToInt(byte b) {
         return (int) b & 0xFF;
     }
@@ -26,7 +26,7 @@ public class EssentialsGeoIP extends JavaPlugin
 			return;
 		}
 		final EssentialsGeoIPPlayerListener playerListener = new EssentialsGeoIPPlayerListener(this, ess);
-		pm.registerEvents(playerListener, this);
+		ess.getTimings().registerEvents(playerListener, this);
 		ess.addReloadListener(playerListener);
 
 		getLogger().log(Level.INFO, "This product includes GeoLite data created by MaxMind, available from http://www.maxmind.com/.");
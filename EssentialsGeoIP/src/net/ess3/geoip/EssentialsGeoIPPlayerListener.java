@@ -13,6 +13,11 @@ import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
@@ -20,19 +25,40 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.plugin.Plugin;
 
 
 public class EssentialsGeoIPPlayerListener implements Listener, IReload
 {
-	private transient LookupService ls = null;
+	private static final long LOCATION_EXPIRY = TimeUnit.MINUTES.toMillis(1);
+	private transient volatile LookupService ls = null;
+	private final transient ConcurrentMap<String, PendingLocation> locations = new ConcurrentHashMap<String, PendingLocation>();
 	private static final Logger LOGGER = Logger.getLogger("Minecraft");
 	private transient File databaseFile;
 	private final transient ConfigHolder config;
 	private final transient IEssentials ess;
 	private final transient Plugin geoip;
 
+
+
+	/**
+	 * A location looked up on pre-login, that is waiting for the join.
+	 */
+	private static final class PendingLocation
+	{
+		private final transient String location;
+		private final transient long time;
+
+		public PendingLocation(final String location, final long time)
+		{
+			this.location = location;
+			this.time = time;
+		}
+	}
+
 	public EssentialsGeoIPPlayerListener(final Plugin geoip, final IEssentials ess)
 	{
 		super();
@@ -42,51 +68,74 @@ public class EssentialsGeoIPPlayerListener implements Listener, IReload
 		onReload();
 	}
 
+	/**
+	 * Looks up the location on the async pre-login thread, so the join event only has to announce it.
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onAsyncPlayerPreLogin(final AsyncPlayerPreLoginEvent event)
+	{
+		if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || event.getAddress() == null)
+		{
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		// Clients that disconnect between pre-login and login leave their entry behind
+		final Iterator<PendingLocation> iterator = locations.values().iterator();
+		while (iterator.hasNext())
+		{
+			if (now - iterator.next().time > LOCATION_EXPIRY)
+			{
+				iterator.remove();
+			}
+		}
+		final String location = lookupLocation(event.getAddress());
+		if (location != null)
+		{
+			locations.put(event.getName().toLowerCase(Locale.ENGLISH), new PendingLocation(location, now));
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerLogin(final PlayerLoginEvent event)
+	{
+		if (event.getResult() != PlayerLoginEvent.Result.ALLOWED)
+		{
+			locations.remove(event.getPlayer().getName().toLowerCase(Locale.ENGLISH));
+		}
+	}
+
 	@EventHandler(priority = EventPriority.MONITOR)
 	public void onPlayerJoin(final PlayerJoinEvent event)
 	{
+		final PendingLocation pending = locations.remove(event.getPlayer().getName().toLowerCase(Locale.ENGLISH));
+		String location = pending == null ? null : pending.location;
 		final IUser u = ess.getUserMap().getUser(event.getPlayer());
 		if (Permissions.GEOIP_HIDE.isAuthorized(u))
 		{
 			return;
 		}
-		config.acquireReadLock();
-		try
+		if (location == null)
 		{
-			if (event.getPlayer().getAddress() == null || event.getPlayer().getAddress().getAddress() == null) {
-				return;
-			}
-			final InetAddress address = event.getPlayer().getAddress().getAddress();
-			
-			final StringBuilder builder = new StringBuilder();
-			if (config.getData().getDatabase().isShowCities())
+			// Joined before the pre-login lookup, e.g. during a reload.
+			if (event.getPlayer().getAddress() == null || event.getPlayer().getAddress().getAddress() == null)
 			{
-				final Location loc = ls.getLocation(address);
-				if (loc == null)
-				{
-					return;
-				}
-				if (loc.city != null)
-				{
-					builder.append(loc.city).append(", ");
-				}
-				final String region = regionName.regionNameByCode(loc.countryCode, loc.region);
-				if (region != null)
-				{
-					builder.append(region).append(", ");
-				}
-				builder.append(loc.countryName);
+				return;
 			}
-			else
+			location = lookupLocation(event.getPlayer().getAddress().getAddress());
+			if (location == null)
 			{
-				builder.append(ls.getCountry(address).getName());
+				return;
 			}
+		}
+		config.acquireReadLock();
+		try
+		{
 			if (config.getData().isShowOnWhois())
 			{
 				u.acquireWriteLock();
 				try
 				{
-					u.getData().setGeolocation(builder.toString());
+					u.getData().setGeolocation(location);
 				}
 				finally
 				{
@@ -100,7 +149,7 @@ public class EssentialsGeoIPPlayerListener implements Listener, IReload
 					final IUser user = ess.getUserMap().getUser(player);
 					if (Permissions.GEOIP_SHOW.isAuthorized(user))
 					{
-						user.sendMessage(_("geoipJoinFormat", user.getPlayer().getDisplayName(), builder.toString()));
+						user.sendMessage(_("geoipJoinFormat", user.getPlayer().getDisplayName(), location));
 					}
 				}
 			}
@@ -111,6 +160,53 @@ public class EssentialsGeoIPPlayerListener implements Listener, IReload
 		}
 	}
 
+	/**
+	 * Safe to call from any thread, the database is memory mapped and read without locks.
+	 *
+	 * @param address
+	 * @return the location, or null if it is unknown
+	 */
+	private String lookupLocation(final InetAddress address)
+	{
+		final LookupService lookup = ls;
+		if (lookup == null)
+		{
+			return null;
+		}
+		config.acquireReadLock();
+		try
+		{
+			final StringBuilder builder = new StringBuilder();
+			if (config.getData().getDatabase().isShowCities())
+			{
+				final Location loc = lookup.getLocation(address);
+				if (loc == null)
+				{
+					return null;
+				}
+				if (loc.city != null)
+				{
+					builder.append(loc.city).append(", ");
+				}
+				final String region = regionName.regionNameByCode(loc.countryCode, loc.region);
+				if (region != null)
+				{
+					builder.append(region).append(", ");
+				}
+				builder.append(loc.countryName);
+			}
+			else
+			{
+				builder.append(lookup.getCountry(address).getName());
+			}
+			return builder.toString();
+		}
+		finally
+		{
+			config.unlock();
+		}
+	}
+
 	@Override
 	public final void onReload()
 	{
@@ -147,7 +243,7 @@ public class EssentialsGeoIPPlayerListener implements Listener, IReload
 			}
 			try
 			{
-				ls = new LookupService(databaseFile);
+				ls = new LookupService(databaseFile, LookupService.GEOIP_MMAP_CACHE);
 			}
 			catch (IOException ex)
 			{
@@ -15,6 +15,7 @@ import java.util.Set;
 import java.util.logging.Level;
 
 import org.anjocaido.groupmanager.data.Group;
+import org.anjocaido.groupmanager.dataholder.GroupsDataHolder;
 import org.anjocaido.groupmanager.events.GMGroupEvent;
 import org.anjocaido.groupmanager.events.GroupManagerEventHandler;
 import org.anjocaido.groupmanager.utils.PermissionCheckResult;
@@ -84,6 +85,8 @@ public class GlobalGroups {
 	public void setGroupsChanged(boolean haveGroupsChanged) {
 
 		this.haveGroupsChanged = haveGroupsChanged;
+		if (haveGroupsChanged)
+			GroupsDataHolder.invalidateInheritance();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -413,6 +416,7 @@ public class GlobalGroups {
 	public void resetGlobalGroups() {
 
 		this.groups = new HashMap<String, Group>();
+		GroupsDataHolder.invalidateInheritance();
 	}
 
 	/**
@@ -10,9 +10,12 @@ import java.util.List;
 
 import org.anjocaido.groupmanager.GroupManager;
 import org.anjocaido.groupmanager.dataholder.WorldDataHolder;
+import org.anjocaido.groupmanager.utils.PermissionTrie;
 import org.anjocaido.groupmanager.utils.StringPermissionComparator;
 
 /**
+ * Changes to the stored data of a DataUnit are made while holding its
+ * monitor, so it can be copied consistently off the main thread.
  * 
  * @author gabrielcouto
  */
@@ -20,8 +23,10 @@ public abstract class DataUnit {
 
 	private WorldDataHolder dataSource;
 	private String name;
-	private boolean changed, sorted = false;
+	private volatile boolean changed = false;
+	private boolean sorted = false;
 	private ArrayList<String> permissions = new ArrayList<String>();
+	private volatile PermissionTrie compiledPermissions = null;
 
 	public DataUnit(WorldDataHolder dataSource, String name) {
 
@@ -113,8 +118,11 @@ public abstract class DataUnit {
 		// for(StackTraceElement st: Thread.currentThread().getStackTrace()){
 		// GroupManager.logger.finest(st.toString());
 		// }
-		sorted = false;
-		changed = true;
+		synchronized (this) {
+			sorted = false;
+			compiledPermissions = null;
+			changed = true;
+		}
 	}
 
 	public boolean isChanged() {
@@ -141,7 +149,7 @@ public abstract class DataUnit {
 		return permissions.contains(permission);
 	}
 
-	public void addPermission(String permission) {
+	public synchronized void addPermission(String permission) {
 
 		if (!hasSamePermissionNode(permission)) {
 			permissions.add(permission);
@@ -149,7 +157,7 @@ public abstract class DataUnit {
 		flagAsChanged();
 	}
 
-	public boolean removePermission(String permission) {
+	public synchronized boolean removePermission(String permission) {
 
 		flagAsChanged();
 		return permissions.remove(permission);
@@ -171,11 +179,34 @@ public abstract class DataUnit {
 		return this.sorted;
 	}
 
-	public void sortPermissions() {
+	public synchronized void sortPermissions() {
 
 		if (!isSorted()) {
 			Collections.sort(permissions, StringPermissionComparator.getInstance());
 			sorted = true;
 		}
 	}
+
+	/**
+	 * The sorted permission list compiled for fast checks. It is rebuilt
+	 * after the next change of this DataUnit.
+	 * 
+	 * @return the compiled permissions
+	 */
+	public PermissionTrie getCompiledPermissions() {
+
+		PermissionTrie trie = compiledPermissions;
+		if (trie == null) {
+			// Built under the lock of the mutators, so no change can happen while the list is read.
+			synchronized (this) {
+				trie = compiledPermissions;
+				if (trie == null) {
+					sortPermissions();
+					trie = new PermissionTrie(permissions);
+					compiledPermissions = trie;
+				}
+			}
+		}
+		return trie;
+	}
 }
\ No newline at end of file
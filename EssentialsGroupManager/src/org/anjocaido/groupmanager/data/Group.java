@@ -5,6 +5,7 @@
 package org.anjocaido.groupmanager.data;
 
 import org.anjocaido.groupmanager.GroupManager;
+import org.anjocaido.groupmanager.dataholder.GroupsDataHolder;
 import org.anjocaido.groupmanager.dataholder.WorldDataHolder;
 import org.anjocaido.groupmanager.events.GMGroupEvent.Action;
 import org.anjocaido.groupmanager.events.GroupManagerEventHandler;
@@ -86,6 +87,13 @@ public class Group extends DataUnit implements Cloneable {
 		return clone;
 	}
 
+	@Override
+	public void flagAsChanged() {
+
+		super.flagAsChanged();
+		GroupsDataHolder.invalidateInheritance();
+	}
+
 	/**
 	 * Use this to deliver a group from a different dataSource to another
 	 * 
@@ -130,8 +130,10 @@ public class User extends DataUnit implements Cloneable {
 		}
 		group = getDataSource().getGroup(group.getName());
 		String oldGroup = this.group;
-		this.group = group.getName();
-		flagAsChanged();
+		synchronized (this) {
+			this.group = group.getName();
+			flagAsChanged();
+		}
 		if (GroupManager.isLoaded()) {
 			if (!GroupManager.BukkitPermissions.isPlayer_join() && (updatePerms))
 				GroupManager.BukkitPermissions.updatePlayer(getBukkitPlayer());
@@ -165,8 +167,10 @@ public class User extends DataUnit implements Cloneable {
 			getDataSource().addGroup(subGroup);
 		}
 
-		subGroups.add(subGroup.getName());
-		flagAsChanged();
+		synchronized (this) {
+			subGroups.add(subGroup.getName());
+			flagAsChanged();
+		}
 		if (GroupManager.isLoaded()) {
 			if (!GroupManager.BukkitPermissions.isPlayer_join())
 				GroupManager.BukkitPermissions.updatePlayer(getBukkitPlayer());
@@ -197,8 +201,14 @@ public class User extends DataUnit implements Cloneable {
 	public boolean removeSubGroup(Group subGroup) {
 
 		try {
-			if (subGroups.remove(subGroup.getName())) {
-				flagAsChanged();
+			boolean removed;
+			synchronized (this) {
+				removed = subGroups.remove(subGroup.getName());
+				if (removed) {
+					flagAsChanged();
+				}
+			}
+			if (removed) {
 				if (GroupManager.isLoaded())
 					if (!GroupManager.BukkitPermissions.isPlayer_join())
 						GroupManager.BukkitPermissions.updatePlayer(getBukkitPlayer());
@@ -244,11 +254,13 @@ public class User extends DataUnit implements Cloneable {
 	public void setVariables(Map<String, Object> varList) {
 
 		//UserVariables temp = new UserVariables(this, varList);
-		variables.clearVars();
-		for (String key : varList.keySet()) {
-			variables.addVar(key, varList.get(key));
+		synchronized (this) {
+			variables.clearVars();
+			for (String key : varList.keySet()) {
+				variables.addVar(key, varList.get(key));
+			}
+			flagAsChanged();
 		}
-		flagAsChanged();
 		if (GroupManager.isLoaded()) {
 			//if (!GroupManager.BukkitPermissions.isPlayer_join())
 			//	GroupManager.BukkitPermissions.updatePlayer(this.getName());
@@ -42,11 +42,13 @@ public abstract class Variables implements Cloneable {
 		if (o == null) {
 			return;
 		}
-		if (variables.containsKey(name)) {
-			variables.remove(name);
+		synchronized (owner) {
+			if (variables.containsKey(name)) {
+				variables.remove(name);
+			}
+			variables.put(name, o);
+			owner.flagAsChanged();
 		}
-		variables.put(name, o);
-		owner.flagAsChanged();
 	}
 
 	/**
@@ -159,11 +161,13 @@ public abstract class Variables implements Cloneable {
 	 */
 	public void removeVar(String name) {
 
-		try {
-			variables.remove(name);
-		} catch (Exception e) {
+		synchronized (owner) {
+			try {
+				variables.remove(name);
+			} catch (Exception e) {
+			}
+			owner.flagAsChanged();
 		}
-		owner.flagAsChanged();
 	}
 
 	public static Object parseVariableValue(String value) {
@@ -189,8 +193,10 @@ public abstract class Variables implements Cloneable {
 
 	public void clearVars() {
 
-		variables.clear();
-		owner.flagAsChanged();
+		synchronized (owner) {
+			variables.clear();
+			owner.flagAsChanged();
+		}
 	}
 
 	/**
@@ -3,6 +3,7 @@ package org.anjocaido.groupmanager.dataholder;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.anjocaido.groupmanager.data.Group;
 
@@ -14,6 +15,12 @@ import org.anjocaido.groupmanager.data.Group;
  */
 public class GroupsDataHolder {
 
+	/**
+	 * Counts changes to any group or list of groups, global groups included.
+	 * Inheritance closures built at an older count are outdated.
+	 */
+	private static final AtomicInteger inheritanceVersion = new AtomicInteger();
+
 	private WorldDataHolder dataSource;
 	private Group defaultGroup = null;
 	private File groupsFile;
@@ -70,6 +77,7 @@ public class GroupsDataHolder {
 	public void setGroups(Map<String, Group> groups) {
 
 		this.groups = groups;
+		invalidateInheritance();
 	}
 
 	/**
@@ -102,6 +110,8 @@ public class GroupsDataHolder {
 	public void setGroupsChanged(boolean haveGroupsChanged) {
 
 		this.haveGroupsChanged = haveGroupsChanged;
+		if (haveGroupsChanged)
+			invalidateInheritance();
 	}
 
 	/**
@@ -120,4 +130,21 @@ public class GroupsDataHolder {
 		this.timeStampGroups = timeStampGroups;
 	}
 
+	/**
+	 * @return the current inheritance version
+	 */
+	public static int getInheritanceVersion() {
+
+		return inheritanceVersion.get();
+	}
+
+	/**
+	 * Marks all memoized inheritance closures as outdated.
+	 * Call this whenever a group or its inheritance changes.
+	 */
+	public static void invalidateInheritance() {
+
+		inheritanceVersion.incrementAndGet();
+	}
+
 }
\ No newline at end of file
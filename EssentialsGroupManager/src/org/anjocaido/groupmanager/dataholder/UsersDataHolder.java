@@ -1,8 +1,8 @@
 package org.anjocaido.groupmanager.dataholder;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.anjocaido.groupmanager.data.User;
 
@@ -18,11 +18,12 @@ public class UsersDataHolder {
 	private File usersFile;
 	private boolean haveUsersChanged = false;
 	private long timeStampUsers = 0;
+	private UsersJournal journal;
 
 	/**
-	 * The actual groups holder
+	 * The actual users holder, concurrent as saving reads it off the main thread.
 	 */
-	private Map<String, User> users = new HashMap<String, User>();
+	private Map<String, User> users = new ConcurrentHashMap<String, User>();
 
 	/**
 	 * Constructor
@@ -69,9 +70,27 @@ public class UsersDataHolder {
 	 */
 	public void setUsersFile(File usersFile) {
 
+		if (usersFile != null && (journal == null || !usersFile.equals(this.usersFile)))
+			journal = new UsersJournal(usersFile);
 		this.usersFile = usersFile;
 	}
 
+	/**
+	 * @return the journal of the usersFile, null before a file is set.
+	 */
+	UsersJournal getJournal() {
+
+		return journal;
+	}
+
+	/**
+	 * @param journal the journal to take over after a reload.
+	 */
+	void setJournal(UsersJournal journal) {
+
+		this.journal = journal;
+	}
+
 	/**
 	 * @return the haveUsersChanged
 	 */
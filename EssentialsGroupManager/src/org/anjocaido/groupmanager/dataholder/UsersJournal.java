@@ -0,0 +1,234 @@
+package org.anjocaido.groupmanager.dataholder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.anjocaido.groupmanager.GroupManager;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+/**
+ * Append-only journal of user changes, kept next to the users file.
+ *
+ * Every save appends one YAML document holding only the changed users.
+ * A user mapped to null was removed or reset to the defaults. Each document
+ * ends with an explicit "..." line, documents without it were cut short and
+ * are not replayed.
+ * Loading replays the journal over the users file, compacting writes the
+ * whole users file and deletes the journal.
+ */
+class UsersJournal {
+
+	private static final String DOCUMENT_START = "---";
+	private static final String DOCUMENT_END = "...";
+
+	private final File file;
+
+	/**
+	 * Lower case names of the users stored in the users file or the journal.
+	 */
+	private final Set<String> persisted = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	UsersJournal(File usersFile) {
+
+		this.file = new File(usersFile.getParentFile(), usersFile.getName() + ".journal");
+	}
+
+	/**
+	 * @return the journal file
+	 */
+	File getFile() {
+
+		return file;
+	}
+
+	/**
+	 * @return the size of the journal in bytes, 0 if there is none.
+	 */
+	long length() {
+
+		return file.length();
+	}
+
+	/**
+	 * @param userName
+	 * @return true if the users file or the journal holds this user.
+	 */
+	boolean isPersisted(String userName) {
+
+		return persisted.contains(userName.toLowerCase());
+	}
+
+	/**
+	 * @return a copy of the lower case names of all stored users.
+	 */
+	List<String> getPersisted() {
+
+		return new ArrayList<String>(persisted);
+	}
+
+	/**
+	 * Forget the stored users, call this before reading a users file.
+	 *
+	 * @param userNames the users now stored in the users file
+	 */
+	void resetPersisted(Collection<String> userNames) {
+
+		persisted.clear();
+		for (String userName : userNames) {
+			persisted.add(userName.toLowerCase());
+		}
+	}
+
+	/**
+	 * Append one document and sync it to disk. If this fails, the journal is
+	 * cut back to its old length, so no partial document stays in it.
+	 *
+	 * @param changes user name to user node, or null for removed users.
+	 * @throws IOException
+	 */
+	void append(Map<String, Object> changes) throws IOException {
+
+		DumperOptions opt = new DumperOptions();
+		opt.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+		opt.setExplicitStart(true);
+		final Yaml yaml = new Yaml(opt);
+		byte[] document = (yaml.dump(changes) + DOCUMENT_END + "\n").getBytes("UTF-8");
+
+		long start = file.length();
+		boolean written = false;
+		FileOutputStream stream = new FileOutputStream(file, true);
+		try {
+			stream.write(document);
+			stream.flush();
+			stream.getFD().sync();
+			written = true;
+		} finally {
+			stream.close();
+			if (!written) {
+				truncate(start);
+			}
+		}
+
+		for (Map.Entry<String, Object> entry : changes.entrySet()) {
+			if (entry.getValue() == null) {
+				persisted.remove(entry.getKey().toLowerCase());
+			} else {
+				persisted.add(entry.getKey().toLowerCase());
+			}
+		}
+	}
+
+	/**
+	 * Cut the journal back to the given length after a failed append.
+	 *
+	 * @param length
+	 */
+	private void truncate(long length) {
+
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				raf.setLength(length);
+			} finally {
+				raf.close();
+			}
+		} catch (IOException ex) {
+			GroupManager.logger.log(Level.WARNING, "Unable to remove a partial document from the journal: " + file.getPath(), ex);
+		}
+	}
+
+	/**
+	 * Read all complete documents in the order they were written.
+	 *
+	 * Documents without their end line were cut short by a crash or a failed
+	 * write and are skipped, the documents around them are still returned.
+	 *
+	 * @return the documents, empty if there is no journal.
+	 * @throws IOException
+	 */
+	List<Map<String, Object>> read() throws IOException {
+
+		List<Map<String, Object>> documents = new ArrayList<Map<String, Object>>();
+		if (!file.exists()) {
+			return documents;
+		}
+
+		Yaml yaml = new Yaml(new SafeConstructor());
+		BufferedReader in = new BufferedReader(new UnicodeReader(new FileInputStream(file)));
+		try {
+			StringBuilder document = new StringBuilder();
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.startsWith(DOCUMENT_START) && document.length() > 0) {
+					GroupManager.logger.warning("Ignoring an incomplete document in the journal: " + file.getPath());
+					document.setLength(0);
+				}
+				if (!line.equals(DOCUMENT_END)) {
+					document.append(line).append('\n');
+					continue;
+				}
+				try {
+					Object loaded = yaml.load(document.toString());
+					if (loaded instanceof Map) {
+						// Names like 1234 are read as numbers.
+						Map<String, Object> changes = new LinkedHashMap<String, Object>();
+						for (Map.Entry<?, ?> entry : ((Map<?, ?>) loaded).entrySet()) {
+							changes.put(String.valueOf(entry.getKey()), entry.getValue());
+						}
+						documents.add(changes);
+					}
+				} catch (Exception ex) {
+					GroupManager.logger.log(Level.WARNING, "Ignoring a damaged document in the journal: " + file.getPath(), ex);
+				}
+				document.setLength(0);
+			}
+			if (document.length() > 0) {
+				GroupManager.logger.warning("Ignoring the incomplete end of the journal: " + file.getPath());
+			}
+		} finally {
+			in.close();
+		}
+		return documents;
+	}
+
+	/**
+	 * Move the journal out of the way without replaying it, it is kept as
+	 * users.yml.journal.<time>.old next to the users file.
+	 */
+	void archive() {
+
+		File archive = new File(file.getParentFile(), file.getName() + "." + System.currentTimeMillis() + ".old");
+		if (file.renameTo(archive)) {
+			GroupManager.logger.warning("The journal was moved to: " + archive.getPath());
+		} else {
+			GroupManager.logger.warning("Unable to move the journal, deleting it: " + file.getPath());
+			delete();
+		}
+	}
+
+	/**
+	 * Delete the journal after its changes were written to the users file.
+	 */
+	void delete() {
+
+		if (file.exists() && !file.delete()) {
+			GroupManager.logger.warning("Unable to delete the journal: " + file.getPath());
+		}
+	}
+}
@@ -13,10 +13,14 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.anjocaido.groupmanager.GroupManager;
@@ -61,6 +65,35 @@ public class WorldDataHolder {
      *
      */
 	protected AnjoPermissionsHandler permissionsHandler;
+	/**
+	 * Memoized inheritance closures, by lower case group name.
+	 */
+	private final Map<String, InheritanceClosure> inheritanceClosures = new ConcurrentHashMap<String, InheritanceClosure>();
+
+	/**
+	 * A group and all the groups it inherits, directly or not.
+	 */
+	private static class InheritanceClosure {
+
+		private final int version;
+		private final List<Group> groups;
+		private final List<String> names;
+		private final Set<String> lowerNames;
+
+		private InheritanceClosure(int version, List<Group> groups) {
+
+			this.version = version;
+			this.groups = Collections.unmodifiableList(groups);
+			List<String> names = new ArrayList<String>(groups.size());
+			Set<String> lowerNames = new HashSet<String>();
+			for (Group group : groups) {
+				names.add(group.getName());
+				lowerNames.add(group.getName().toLowerCase());
+			}
+			this.names = Collections.unmodifiableList(names);
+			this.lowerNames = lowerNames;
+		}
+	}
 
 	/**
 	 * Prevent direct instantiation
@@ -147,7 +180,10 @@ public class WorldDataHolder {
 	public boolean removeUser(String userName) {
 
 		if (getUsers().containsKey(userName.toLowerCase())) {
-			getUsers().remove(userName.toLowerCase());
+			User removed = getUsers().remove(userName.toLowerCase());
+			if (removed != null && permissionsHandler != null) {
+				permissionsHandler.clearPopulatedPerms(removed);
+			}
 			setUsersChanged(true);
 			if (GroupManager.isLoaded())
 				GroupManagerEventHandler.callEvent(userName, GMUserEvent.Action.USER_REMOVED);
@@ -221,6 +257,73 @@ public class WorldDataHolder {
 			return getGroups().containsKey(groupName.toLowerCase());
 	}
 
+	/**
+	 * Returns the group and every group it inherits, global groups included.
+	 * 
+	 * The groups are in breadth-first order, so closer groups come first
+	 * and each group appears only once. The result is memoized until any
+	 * group changes.
+	 * 
+	 * @param start the group to start with
+	 * @return an unmodifiable list, starting with the given group
+	 */
+	public List<Group> getInheritedGroups(Group start) {
+
+		return getInheritanceClosure(start).groups;
+	}
+
+	/**
+	 * Same as getInheritedGroups, but only the names.
+	 * 
+	 * @param start the group to start with
+	 * @return an unmodifiable list of group names
+	 */
+	public List<String> getInheritedGroupNames(Group start) {
+
+		return getInheritanceClosure(start).names;
+	}
+
+	/**
+	 * Check if a group is the given group or inherits it.
+	 * 
+	 * @param start the group to start with
+	 * @param groupName name of the group you're looking for
+	 * @return true if it inherits the group.
+	 */
+	public boolean inheritsGroup(Group start, String groupName) {
+
+		return getInheritanceClosure(start).lowerNames.contains(groupName.toLowerCase());
+	}
+
+	private InheritanceClosure getInheritanceClosure(Group start) {
+
+		int version = GroupsDataHolder.getInheritanceVersion();
+		String key = start.getName().toLowerCase();
+		InheritanceClosure closure = inheritanceClosures.get(key);
+		if (closure != null && closure.version == version && closure.groups.get(0) == start) {
+			return closure;
+		}
+		List<Group> groups = new ArrayList<Group>();
+		Set<Group> alreadyVisited = new HashSet<Group>();
+		groups.add(start);
+		alreadyVisited.add(start);
+		// The list is also the queue, walking it adds the next level.
+		for (int i = 0; i < groups.size(); i++) {
+			for (String sonName : groups.get(i).getInherits()) {
+				Group son = getGroup(sonName);
+				if (son != null && alreadyVisited.add(son)) {
+					groups.add(son);
+				}
+			}
+		}
+		closure = new InheritanceClosure(version, groups);
+		// Only groups of this holder are memoized, copies are computed each time.
+		if (getGroup(start.getName()) == start) {
+			inheritanceClosures.put(key, closure);
+		}
+		return closure;
+	}
+
 	/**
 	 * Add a group to the list
 	 * 
@@ -261,7 +364,10 @@ public class WorldDataHolder {
 			return false;
 		}
 		if (getGroups().containsKey(groupName.toLowerCase())) {
-			getGroups().remove(groupName.toLowerCase());
+			Group removed = getGroups().remove(groupName.toLowerCase());
+			if (removed != null && permissionsHandler != null) {
+				permissionsHandler.clearPopulatedPerms(removed);
+			}
 			setGroupsChanged(true);
 			if (GroupManager.isLoaded())
 				GroupManagerEventHandler.callEvent(groupName.toLowerCase(), GMGroupEvent.Action.GROUP_REMOVED);
@@ -394,6 +500,7 @@ public class WorldDataHolder {
 			for (User tempUser : ph.getUserList()) {
 				tempUser.clone(this);
 			}
+			users.setJournal(ph.getUsersObject().getJournal());
 			this.removeUsersChangedFlag();
 			this.setTimeStampUsers(getUsersFile().lastModified());
 
@@ -744,6 +851,8 @@ public class WorldDataHolder {
 		if (!usersFile.exists()) {
 			throw new IllegalArgumentException("The file which should contain users does not exist!\n" + usersFile.getPath());
 		}
+		ph.setUsersFile(usersFile);
+		UsersJournal journal = ph.getUsersObject().getJournal();
 		FileInputStream usersInputStream = new FileInputStream(usersFile);
 		try {
 			usersRootDataNode = (Map<String, Object>) yamlUsers.load(new UnicodeReader(usersInputStream));
@@ -793,128 +902,172 @@ public class WorldDataHolder {
 					throw new IllegalArgumentException("Bad format found for user: " + usersKey + " in file: " + usersFile.getPath());
 				}
 
-				User thisUser = ph.createUser(usersKey);
-				if (thisUser == null) {
-					throw new IllegalArgumentException("I think this user was declared more than once: " + usersKey + " in file: " + usersFile.getPath());
-				}
+				loadUser(ph, usersKey, thisUserNode, usersFile);
+			}
+		}
 
-				// USER PERMISSIONS NODES
+		// REPLAY THE JOURNAL
 
-				Object nodeData = null;
-				try {
-					nodeData = thisUserNode.get("permissions");
-				} catch (Exception ex) {
-					throw new IllegalArgumentException("Bad format found in 'permissions' for user: " + usersKey + " in file: " + usersFile.getPath());
+		Set<String> persisted = new HashSet<String>();
+		if (allUsersNode != null) {
+			for (String userName : allUsersNode.keySet()) {
+				persisted.add(userName.toLowerCase());
+			}
+		}
+		List<Map<String, Object>> journalChanges;
+		if (journal.length() > 0 && usersFile.lastModified() > journal.getFile().lastModified()) {
+			// The users file was edited by hand, replaying would revert the edits.
+			GroupManager.logger.warning("The users file is newer than its journal, ignoring the journal: " + usersFile.getPath());
+			journal.archive();
+			journalChanges = Collections.emptyList();
+		} else {
+			journalChanges = journal.read();
+		}
+		for (Map<String, Object> changes : journalChanges) {
+			for (Map.Entry<String, Object> entry : changes.entrySet()) {
+				String userName = entry.getKey();
+				ph.removeUser(userName);
+				persisted.remove(userName.toLowerCase());
+				if (entry.getValue() instanceof Map) {
+					loadUser(ph, userName, (Map<String, Object>) entry.getValue(), journal.getFile());
+					persisted.add(userName.toLowerCase());
 				}
+			}
+		}
+		journal.resetPersisted(persisted);
 
-				if (nodeData == null) {
+		ph.removeUsersChangedFlag();
+		// Update the LastModified time.
+		ph.setUsersFile(usersFile);
+		ph.setTimeStampUsers(usersFile.lastModified());
+	}
+
+	/**
+	 * Adds one user node, read from the users file or its journal.
+	 * 
+	 * @param ph
+	 * @param usersKey the user name
+	 * @param thisUserNode the node holding the user data
+	 * @param usersFile the file being read, for error messages
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static void loadUser(WorldDataHolder ph, String usersKey, Map<String, Object> thisUserNode, File usersFile) {
+
+		User thisUser = ph.createUser(usersKey);
+		if (thisUser == null) {
+			throw new IllegalArgumentException("I think this user was declared more than once: " + usersKey + " in file: " + usersFile.getPath());
+		}
+
+		// USER PERMISSIONS NODES
+
+		Object nodeData = null;
+		try {
+			nodeData = thisUserNode.get("permissions");
+		} catch (Exception ex) {
+			throw new IllegalArgumentException("Bad format found in 'permissions' for user: " + usersKey + " in file: " + usersFile.getPath());
+		}
+
+		if (nodeData == null) {
+			/*
+			 * If no permissions node is found, or it's empty
+			 * do nothing.
+			 */
+		} else {
+			if (nodeData instanceof List) {
+				for (Object o : ((List) nodeData)) {
 					/*
-					 * If no permissions node is found, or it's empty
-					 * do nothing.
+					 * Only add this permission if it's not empty
 					 */
-				} else {
-					if (nodeData instanceof List) {
-						for (Object o : ((List) nodeData)) {
-							/*
-							 * Only add this permission if it's not empty
-							 */
-							if (!o.toString().isEmpty())
-								thisUser.addPermission(o.toString());
-						}
-					} else if (nodeData instanceof String) {
-						try {
-							/*
-							 * Only add this permission if it's not empty
-							 */
-							if (!nodeData.toString().isEmpty())
-								thisUser.addPermission(nodeData.toString());
-						} catch (NullPointerException e) {
-							// Ignore this entry as it's null.
-						}
-					}
-					thisUser.sortPermissions();
+					if (!o.toString().isEmpty())
+						thisUser.addPermission(o.toString());
 				}
-
-				// SUBGROUPS NODES
-
-				nodeData = null;
+			} else if (nodeData instanceof String) {
 				try {
-					nodeData = thisUserNode.get("subgroups");
-				} catch (Exception ex) {
-					throw new IllegalArgumentException("Bad format found in 'subgroups' for user: " + usersKey + " in file: " + usersFile.getPath());
-				}
-
-				if (nodeData == null) {
 					/*
-					 * If no subgroups node is found, or it's empty
-					 * do nothing.
+					 * Only add this permission if it's not empty
 					 */
-				} else if (nodeData instanceof List) {
-					for (Object o : ((List) nodeData)) {
-						Group subGrp = ph.getGroup(o.toString());
-						if (subGrp != null) {
-							thisUser.addSubGroup(subGrp);
-						} else {
-							GroupManager.logger.warning("Subgroup '" + o.toString() + "' not found for user: " + thisUser.getName() + ". Ignoring entry in file: " + usersFile.getPath());
-						}
-					}
-				} else if (nodeData instanceof String) {
-					Group subGrp = ph.getGroup(nodeData.toString());
-					if (subGrp != null) {
-						thisUser.addSubGroup(subGrp);
-					} else {
-						GroupManager.logger.warning("Subgroup '" + nodeData.toString() + "' not found for user: " + thisUser.getName() + ". Ignoring entry in file: " + usersFile.getPath());
-					}
+					if (!nodeData.toString().isEmpty())
+						thisUser.addPermission(nodeData.toString());
+				} catch (NullPointerException e) {
+					// Ignore this entry as it's null.
 				}
+			}
+			thisUser.sortPermissions();
+		}
 
-				// USER INFO NODE
+		// SUBGROUPS NODES
 
-				nodeData = null;
-				try {
-					nodeData = thisUserNode.get("info");
-				} catch (Exception ex) {
-					throw new IllegalArgumentException("Bad format found in 'info' section for user: " + usersKey + " in file: " + usersFile.getPath());
+		nodeData = null;
+		try {
+			nodeData = thisUserNode.get("subgroups");
+		} catch (Exception ex) {
+			throw new IllegalArgumentException("Bad format found in 'subgroups' for user: " + usersKey + " in file: " + usersFile.getPath());
+		}
+
+		if (nodeData == null) {
+			/*
+			 * If no subgroups node is found, or it's empty
+			 * do nothing.
+			 */
+		} else if (nodeData instanceof List) {
+			for (Object o : ((List) nodeData)) {
+				Group subGrp = ph.getGroup(o.toString());
+				if (subGrp != null) {
+					thisUser.addSubGroup(subGrp);
+				} else {
+					GroupManager.logger.warning("Subgroup '" + o.toString() + "' not found for user: " + thisUser.getName() + ". Ignoring entry in file: " + usersFile.getPath());
 				}
+			}
+		} else if (nodeData instanceof String) {
+			Group subGrp = ph.getGroup(nodeData.toString());
+			if (subGrp != null) {
+				thisUser.addSubGroup(subGrp);
+			} else {
+				GroupManager.logger.warning("Subgroup '" + nodeData.toString() + "' not found for user: " + thisUser.getName() + ". Ignoring entry in file: " + usersFile.getPath());
+			}
+		}
 
-				if (nodeData == null) {
-					/*
-					 * If no info node is found, or it's empty
-					 * do nothing.
-					 */
-				} else if (nodeData instanceof Map) {
-					thisUser.setVariables((Map<String, Object>) nodeData);
+		// USER INFO NODE
+
+		nodeData = null;
+		try {
+			nodeData = thisUserNode.get("info");
+		} catch (Exception ex) {
+			throw new IllegalArgumentException("Bad format found in 'info' section for user: " + usersKey + " in file: " + usersFile.getPath());
+		}
 
-				} else
-					throw new IllegalArgumentException("Unknown entry found in 'info' section for user: " + thisUser.getName() + " in file: " + usersFile.getPath());
+		if (nodeData == null) {
+			/*
+			 * If no info node is found, or it's empty
+			 * do nothing.
+			 */
+		} else if (nodeData instanceof Map) {
+			thisUser.setVariables((Map<String, Object>) nodeData);
 
-				// END INFO NODE
+		} else
+			throw new IllegalArgumentException("Unknown entry found in 'info' section for user: " + thisUser.getName() + " in file: " + usersFile.getPath());
 
-				// PRIMARY GROUP
+		// END INFO NODE
 
-				nodeData = null;
-				try {
-					nodeData = thisUserNode.get("group");
-				} catch (Exception ex) {
-					throw new IllegalArgumentException("Bad format found in 'group' section for user: " + usersKey + " in file: " + usersFile.getPath());
-				}
+		// PRIMARY GROUP
 
-				if (nodeData != null) {
-					Group hisGroup = ph.getGroup(nodeData.toString());
-					if (hisGroup == null) {
-						GroupManager.logger.warning("There is no group " + thisUserNode.get("group").toString() + ", as stated for player " + thisUser.getName() + ": Set to '" + ph.getDefaultGroup().getName() + "' for file: " + usersFile.getPath());
-						hisGroup = ph.getDefaultGroup();
-					}
-					thisUser.setGroup(hisGroup);
-				} else {
-					thisUser.setGroup(ph.getDefaultGroup());
-				}
-			}
+		nodeData = null;
+		try {
+			nodeData = thisUserNode.get("group");
+		} catch (Exception ex) {
+			throw new IllegalArgumentException("Bad format found in 'group' section for user: " + usersKey + " in file: " + usersFile.getPath());
 		}
 
-		ph.removeUsersChangedFlag();
-		// Update the LastModified time.
-		ph.setUsersFile(usersFile);
-		ph.setTimeStampUsers(usersFile.lastModified());
+		if (nodeData != null) {
+			Group hisGroup = ph.getGroup(nodeData.toString());
+			if (hisGroup == null) {
+				GroupManager.logger.warning("There is no group " + thisUserNode.get("group").toString() + ", as stated for player " + thisUser.getName() + ": Set to '" + ph.getDefaultGroup().getName() + "' for file: " + usersFile.getPath());
+				hisGroup = ph.getDefaultGroup();
+			}
+			thisUser.setGroup(hisGroup);
+		} else {
+			thisUser.setGroup(ph.getDefaultGroup());
+		}
 	}
 
 	/**
@@ -1017,54 +1170,64 @@ public class WorldDataHolder {
 
 		Map<String, Object> usersMap = new HashMap<String, Object>();
 		root.put("users", usersMap);
-		for (String userKey : ph.getUsers().keySet()) {
-			User user = ph.getUsers().get(userKey);
-			if ((user.getGroup() == null || user.getGroup().equals(ph.getDefaultGroup())) && user.getPermissionList().isEmpty() && user.getVariables().isEmpty() && user.isSubGroupsEmpty()) {
-				continue;
+		// Clear the flags first, changes made while we copy flag the users again.
+		List<User> saved = new ArrayList<User>();
+		ph.setUsersChanged(false);
+		boolean written = false;
+		try {
+			for (User user : ph.getUsers().values()) {
+				user.flagAsSaved();
+				saved.add(user);
+				Map<String, Object> aUserMap = snapshotUser(ph, user);
+				if (aUserMap != null) {
+					usersMap.put(user.getName(), aUserMap);
+				}
 			}
 
-			Map<String, Object> aUserMap = new HashMap<String, Object>();
-			usersMap.put(user.getName(), aUserMap);
-
-			if (user.getGroup() == null) {
-				aUserMap.put("group", ph.getDefaultGroup().getName());
-			} else {
-				aUserMap.put("group", user.getGroup().getName());
-			}
-			// USER INFO NODE - BETA
-			if (user.getVariables().getSize() > 0) {
-				Map<String, Object> infoMap = new HashMap<String, Object>();
-				aUserMap.put("info", infoMap);
-				for (String infoKey : user.getVariables().getVarKeyList()) {
-					infoMap.put(infoKey, user.getVariables().getVarObject(infoKey));
+			if (!root.isEmpty()) {
+				DumperOptions opt = new DumperOptions();
+				opt.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+				final Yaml yaml = new Yaml(opt);
+				try {
+					// Written next to the users file and renamed over it, so a crash leaves the old file.
+					File tempFile = File.createTempFile(usersFile.getName() + ".", ".tmp", usersFile.getParentFile());
+					try {
+						FileOutputStream stream = new FileOutputStream(tempFile);
+						try {
+							OutputStreamWriter out = new OutputStreamWriter(stream, "UTF-8");
+							yaml.dump(root, out);
+							out.flush();
+							stream.getFD().sync();
+						} finally {
+							stream.close();
+						}
+						replaceFile(tempFile, usersFile);
+					} finally {
+						if (tempFile.exists() && !tempFile.delete()) {
+							tempFile.deleteOnExit();
+						}
+					}
+				} catch (IOException ex) {
+					// Keep the journal, it still holds the changes.
+					GroupManager.logger.log(Level.SEVERE, "Unable to write the users file: " + usersFile.getPath(), ex);
+					return;
 				}
 			}
-			// END USER INFO NODE - BETA
-			aUserMap.put("permissions", user.getPermissionList());
-
-			// SUBGROUPS NODE - BETA
-			aUserMap.put("subgroups", user.subGroupListStringCopy());
-			// END SUBGROUPS NODE - BETA
-		}
-
-		if (!root.isEmpty()) {
-			DumperOptions opt = new DumperOptions();
-			opt.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-			final Yaml yaml = new Yaml(opt);
-			try {
-				OutputStreamWriter out = new OutputStreamWriter(new FileOutputStream(usersFile), "UTF-8");
-				yaml.dump(root, out);
-				out.close();
-			} catch (UnsupportedEncodingException ex) {
-			} catch (FileNotFoundException ex) {
-			} catch (IOException e) {
+			written = true;
+		} finally {
+			if (!written) {
+				flagAsUnsaved(ph, saved);
 			}
 		}
 
 		// Update the LastModified time.
 		ph.setUsersFile(usersFile);
 		ph.setTimeStampUsers(usersFile.lastModified());
-		ph.removeUsersChangedFlag();
+
+		// The users file now holds everything the journal had.
+		UsersJournal journal = ph.getUsersObject().getJournal();
+		journal.delete();
+		journal.resetPersisted(usersMap.keySet());
 
 		if (GroupManager.isLoaded())
 			GroupManagerEventHandler.callEvent(GMSystemEvent.Action.SAVED);
@@ -1085,6 +1248,154 @@ public class WorldDataHolder {
 		 */
 	}
 
+	/**
+	 * Move a fully written temporary file over the target. The rename is
+	 * atomic on POSIX filesystems, Windows can't rename over an existing
+	 * file, so there the old file is removed first.
+	 * 
+	 * @param tempFile
+	 * @param file
+	 * @throws IOException
+	 */
+	private static void replaceFile(File tempFile, File file) throws IOException {
+
+		if (tempFile.renameTo(file)) {
+			return;
+		}
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Unable to delete " + file.getPath());
+		}
+		if (!tempFile.renameTo(file)) {
+			throw new IOException("Unable to rename " + tempFile.getPath() + " to " + file.getPath());
+		}
+	}
+
+	/**
+	 * Append the users changed since the last save to the journal of the
+	 * users file, instead of writing the whole file.
+	 * 
+	 * Safe to call off the main thread, each user is copied on its own.
+	 * 
+	 * @param ph
+	 */
+	public static void writeUserChanges(WorldDataHolder ph) {
+
+		UsersJournal journal = ph.getUsersObject().getJournal();
+		Map<String, Object> changes = new HashMap<String, Object>();
+		Set<String> current = new HashSet<String>();
+
+		// Clear the flags first, changes made while we copy flag the users again.
+		List<User> saved = new ArrayList<User>();
+		ph.setUsersChanged(false);
+		boolean written = false;
+		try {
+			for (User user : ph.getUsers().values()) {
+				current.add(user.getName().toLowerCase());
+				if (!user.isChanged()) {
+					continue;
+				}
+				user.flagAsSaved();
+				saved.add(user);
+				Map<String, Object> aUserMap = snapshotUser(ph, user);
+				if (aUserMap != null) {
+					changes.put(user.getName(), aUserMap);
+				} else if (journal.isPersisted(user.getName())) {
+					// Back to a default user.
+					changes.put(user.getName(), null);
+				}
+			}
+			// Users removed since the last save.
+			for (String userName : journal.getPersisted()) {
+				if (!current.contains(userName)) {
+					changes.put(userName, null);
+				}
+			}
+
+			if (!changes.isEmpty()) {
+				try {
+					journal.append(changes);
+				} catch (IOException ex) {
+					GroupManager.logger.log(Level.SEVERE, "Unable to write the journal: " + journal.getFile().getPath(), ex);
+					return;
+				}
+			}
+			written = true;
+		} finally {
+			if (!written) {
+				flagAsUnsaved(ph, saved);
+			}
+		}
+
+		if (GroupManager.isLoaded())
+			GroupManagerEventHandler.callEvent(GMSystemEvent.Action.SAVED);
+	}
+
+	/**
+	 * @return true once the journal is large enough to be written into the users file.
+	 */
+	public boolean isUsersJournalFull() {
+
+		UsersJournal journal = getUsersObject().getJournal();
+		return journal != null && journal.length() > getUsersFile().length() / 2;
+	}
+
+	/**
+	 * Flag the users as changed again after a save failed, so the next save
+	 * writes them.
+	 * 
+	 * @param ph
+	 * @param users the users whose flags were cleared for the failed save
+	 */
+	private static void flagAsUnsaved(WorldDataHolder ph, List<User> users) {
+
+		for (User user : users) {
+			user.flagAsChanged();
+		}
+		ph.setUsersChanged(true);
+	}
+
+	/**
+	 * Copy the data of a user into a users file node.
+	 * 
+	 * The copy is made while holding the monitor of the user, which the main
+	 * thread holds while changing it.
+	 * 
+	 * @param ph
+	 * @param user
+	 * @return the node, or null for a default user which isn't stored.
+	 */
+	private static Map<String, Object> snapshotUser(WorldDataHolder ph, User user) {
+
+		synchronized (user) {
+			if ((user.getGroup() == null || user.getGroup().equals(ph.getDefaultGroup())) && user.getPermissionList().isEmpty() && user.getVariables().isEmpty() && user.isSubGroupsEmpty()) {
+				return null;
+			}
+
+			Map<String, Object> aUserMap = new HashMap<String, Object>();
+
+			if (user.getGroup() == null) {
+				aUserMap.put("group", ph.getDefaultGroup().getName());
+			} else {
+				aUserMap.put("group", user.getGroup().getName());
+			}
+			// USER INFO NODE - BETA
+			if (user.getVariables().getSize() > 0) {
+				Map<String, Object> infoMap = new HashMap<String, Object>();
+				aUserMap.put("info", infoMap);
+				for (String infoKey : user.getVariables().getVarKeyList()) {
+					infoMap.put(infoKey, user.getVariables().getVarObject(infoKey));
+				}
+			}
+			// END USER INFO NODE - BETA
+			aUserMap.put("permissions", new ArrayList<String>(user.getPermissionList()));
+
+			// SUBGROUPS NODE - BETA
+			aUserMap.put("subgroups", user.subGroupListStringCopy());
+			// END SUBGROUPS NODE - BETA
+			return aUserMap;
+		}
+	}
+
 	/**
 	 * Don't use this. Unless you want to make this plugin to interact with
 	 * original Nijikokun Permissions
@@ -1247,6 +1558,7 @@ public class WorldDataHolder {
 
 		// setDefaultGroup(null);
 		groups.setGroups(new HashMap<String, Group>());
+		clearPopulatedPerms();
 	}
 
 	/**
@@ -1254,7 +1566,15 @@ public class WorldDataHolder {
 	 */
 	public void resetUsers() {
 
-		users.setUsers(new HashMap<String, User>());
+		users.setUsers(new ConcurrentHashMap<String, User>());
+		clearPopulatedPerms();
+	}
+
+	private void clearPopulatedPerms() {
+
+		if (permissionsHandler != null) {
+			permissionsHandler.clearPopulatedPerms();
+		}
 	}
 
 	/**
@@ -1287,6 +1607,8 @@ public class WorldDataHolder {
 	public void setGroupsObject(GroupsDataHolder groupsDataHolder) {
 
 		groups = groupsDataHolder;
+		GroupsDataHolder.invalidateInheritance();
+		clearPopulatedPerms();
 	}
 
 	/**
@@ -1303,6 +1625,7 @@ public class WorldDataHolder {
 	public void setUsersObject(UsersDataHolder usersDataHolder) {
 
 		users = usersDataHolder;
+		clearPopulatedPerms();
 	}
 
 	/**
@@ -312,10 +312,15 @@ public class WorldsHolder {
 			if (!mirrorsUser.containsKey(w.getName().toLowerCase()))
 				if (w.haveUsersChanged()) {
 					if (overwrite || (!overwrite && (w.getTimeStampUsers() >= w.getUsersFile().lastModified()))) {
-						// Backup Users file
-						backupFile(w, false);
+						if (overwrite || w.isUsersJournalFull()) {
+							// Backup Users file
+							backupFile(w, false);
 
-						WorldDataHolder.writeUsers(w, w.getUsersFile());
+							WorldDataHolder.writeUsers(w, w.getUsersFile());
+						} else {
+							// Only the changed users, the journal is merged into the file later.
+							WorldDataHolder.writeUserChanges(w);
+						}
 						//w.removeUsersChangedFlag();
 					} else {
 						// Newer file found.
@@ -557,6 +562,11 @@ public class WorldsHolder {
 		try {
 			Tasks.copy(fromWorldGroups, toWorldGroups);
 			Tasks.copy(fromWorldUsers, toWorldUsers);
+			// Changes not yet merged into the users file.
+			File fromWorldJournal = new File(fromWorldFolder, "users.yml.journal");
+			if (fromWorldJournal.exists()) {
+				Tasks.copy(fromWorldJournal, new File(toWorldFolder, "users.yml.journal"));
+			}
 		} catch (IOException ex) {
 			Logger.getLogger(WorldsHolder.class.getName()).log(Level.SEVERE, null, ex);
 			return false;
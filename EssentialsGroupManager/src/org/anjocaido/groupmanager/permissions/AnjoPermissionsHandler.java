@@ -5,17 +5,21 @@
 package org.anjocaido.groupmanager.permissions;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.anjocaido.groupmanager.GroupManager;
+import org.anjocaido.groupmanager.data.DataUnit;
 import org.anjocaido.groupmanager.data.Group;
 import org.anjocaido.groupmanager.dataholder.WorldDataHolder;
 import org.anjocaido.groupmanager.data.User;
 import org.anjocaido.groupmanager.utils.PermissionCheckResult;
+import org.anjocaido.groupmanager.utils.PermissionTrie;
 import org.bukkit.entity.Player;
 
 /**
@@ -31,6 +35,26 @@ import org.bukkit.entity.Player;
 public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 
 	WorldDataHolder ph = null;
+	private final Map<DataUnit, PopulatedPerms> populatedPerms = new ConcurrentHashMap<DataUnit, PopulatedPerms>();
+	private final Map<DataUnit, PopulatedPerms> populatedPermsWithChildren = new ConcurrentHashMap<DataUnit, PopulatedPerms>();
+
+	/**
+	 * The populated permissions of a DataUnit, valid as long as its compiled
+	 * permissions and the registered Bukkit permissions stay the same.
+	 */
+	private static class PopulatedPerms {
+
+		private final PermissionTrie compiled;
+		private final int generation;
+		private final Set<String> perms;
+
+		PopulatedPerms(PermissionTrie compiled, int generation, Set<String> perms) {
+
+			this.compiled = compiled;
+			this.generation = generation;
+			this.perms = perms;
+		}
+	}
 
 	/**
 	 * It needs a WorldDataHolder to work with.
@@ -42,6 +66,26 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 		ph = holder;
 	}
 
+	/**
+	 * Drops all populated permissions, when the users or groups are replaced.
+	 */
+	public void clearPopulatedPerms() {
+
+		populatedPerms.clear();
+		populatedPermsWithChildren.clear();
+	}
+
+	/**
+	 * Drops the populated permissions of a removed user or group.
+	 * 
+	 * @param unit
+	 */
+	public void clearPopulatedPerms(DataUnit unit) {
+
+		populatedPerms.remove(unit);
+		populatedPermsWithChildren.remove(unit);
+	}
+
 	/**
 	 * A short name method, for permission method.
 	 * 
@@ -122,7 +166,7 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 		Set<String> playerPermArray = new HashSet<String>();
 
 		// Add the players own permissions.
-		playerPermArray.addAll(populatePerms(ph.getUser(userName).getPermissionList(), includeChildren));
+		playerPermArray.addAll(populatePerms(ph.getUser(userName), includeChildren));
 
 		ArrayList<String> alreadyProcessed = new ArrayList<String>();
 
@@ -140,7 +184,7 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 
 				} else {
 					// World Groups
-					groupPermArray = populatePerms(ph.getGroup(group).getPermissionList(), includeChildren);
+					groupPermArray = populatePerms(ph.getGroup(group), includeChildren);
 				}
 
 				// Add all group permissions, unless negated by earlier permissions.
@@ -159,6 +203,26 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 		return playerPermArray;
 	}
 
+	/**
+	 * Cached version of populatePerms for users and world groups.
+	 * 
+	 * @param unit
+	 * @param includeChildren
+	 * @return Set<String> of the populated permissions, not modifiable
+	 */
+	private Set<String> populatePerms(DataUnit unit, boolean includeChildren) {
+
+		Map<DataUnit, PopulatedPerms> cache = includeChildren ? populatedPermsWithChildren : populatedPerms;
+		PermissionTrie compiled = unit.getCompiledPermissions();
+		int generation = GroupManager.BukkitPermissions == null ? 0 : GroupManager.BukkitPermissions.getGeneration();
+		PopulatedPerms cached = cache.get(unit);
+		if (cached == null || cached.compiled != compiled || cached.generation != generation) {
+			cached = new PopulatedPerms(compiled, generation, Collections.unmodifiableSet(populatePerms(unit.getPermissionList(), includeChildren)));
+			cache.put(unit, cached);
+		}
+		return cached.perms;
+	}
+
 	private Set<String> populatePerms(List<String> permsList, boolean includeChildren) {
 
 		// Create a new array so it's modifiable.
@@ -698,17 +762,10 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 	 */
 	public PermissionCheckResult checkUserOnlyPermission(User user, String permission) {
 
-		user.sortPermissions();
 		PermissionCheckResult result = new PermissionCheckResult();
 		result.askedPermission = permission;
 		result.owner = user;
-		for (String access : user.getPermissionList()) {
-			result.resultType = comparePermissionString(access, permission);
-			if (result.resultType != PermissionCheckResult.Type.NOTFOUND) {
-				return result;
-			}
-		}
-		result.resultType = PermissionCheckResult.Type.NOTFOUND;
+		result.resultType = user.getCompiledPermissions().check(permission);
 		return result;
 	}
 
@@ -722,17 +779,10 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 	 */
 	public PermissionCheckResult checkGroupOnlyPermission(Group group, String permission) {
 
-		group.sortPermissions();
 		PermissionCheckResult result = new PermissionCheckResult();
 		result.owner = group;
 		result.askedPermission = permission;
-		for (String access : group.getPermissionList()) {
-			result.resultType = comparePermissionString(access, permission);
-			if (result.resultType != PermissionCheckResult.Type.NOTFOUND) {
-				return result;
-			}
-		}
-		result.resultType = PermissionCheckResult.Type.NOTFOUND;
+		result.resultType = group.getCompiledPermissions().check(permission);
 		return result;
 	}
 
@@ -838,22 +888,10 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 		if (start == null || targetVariable == null) {
 			return null;
 		}
-		LinkedList<Group> stack = new LinkedList<Group>();
-		ArrayList<Group> alreadyVisited = new ArrayList<Group>();
-		stack.push(start);
-		alreadyVisited.add(start);
-		while (!stack.isEmpty()) {
-			Group now = stack.pop();
+		for (Group now : ph.getInheritedGroups(start)) {
 			if (now.getVariables().hasVar(targetVariable)) {
 				return now;
 			}
-			for (String sonName : now.getInherits()) {
-				Group son = ph.getGroup(sonName);
-				if (son != null && !alreadyVisited.contains(son)) {
-					stack.push(son);
-					alreadyVisited.add(son);
-				}
-			}
 		}
 		return null;
 	}
@@ -873,24 +911,7 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 		if (start == null || askedGroup == null) {
 			return false;
 		}
-		LinkedList<Group> stack = new LinkedList<Group>();
-		ArrayList<Group> alreadyVisited = new ArrayList<Group>();
-		stack.push(start);
-		alreadyVisited.add(start);
-		while (!stack.isEmpty()) {
-			Group now = stack.pop();
-			if (now.getName().equalsIgnoreCase(askedGroup)) {
-				return true;
-			}
-			for (String sonName : now.getInherits()) {
-				Group son = ph.getGroup(sonName);
-				if (son != null && !alreadyVisited.contains(son)) {
-					stack.push(son);
-					alreadyVisited.add(son);
-				}
-			}
-		}
-		return false;
+		return ph.inheritsGroup(start, askedGroup);
 	}
 
 	/**
@@ -912,24 +933,11 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 		if (start == null || targetPermission == null) {
 			return null;
 		}
-		LinkedList<Group> stack = new LinkedList<Group>();
-		List<Group> alreadyVisited = new ArrayList<Group>();
-		stack.push(start);
-		alreadyVisited.add(start);
-		while (!stack.isEmpty()) {
-			Group now = stack.pop();
+		for (Group now : ph.getInheritedGroups(start)) {
 			PermissionCheckResult resultNow = checkGroupOnlyPermission(now, targetPermission);
 			if (!resultNow.resultType.equals(PermissionCheckResult.Type.NOTFOUND)) {
 				return resultNow;
 			}
-			for (String sonName : now.getInherits()) {
-				Group son = ph.getGroup(sonName);
-				if (son != null && !alreadyVisited.contains(son)) {
-					// Add rather than push to retain inheritance order.
-					stack.add(son);
-					alreadyVisited.add(son);
-				}
-			}
 		}
 		PermissionCheckResult result = new PermissionCheckResult();
 		result.askedPermission = targetPermission;
@@ -951,21 +959,7 @@ public class AnjoPermissionsHandler extends PermissionsReaderInterface {
 		if (start == null) {
 			return null;
 		}
-		LinkedList<Group> stack = new LinkedList<Group>();
-		ArrayList<String> alreadyVisited = new ArrayList<String>();
-		stack.push(start);
-		alreadyVisited.add(start.getName());
-		while (!stack.isEmpty()) {
-			Group now = stack.pop();
-			for (String sonName : now.getInherits()) {
-				Group son = ph.getGroup(sonName);
-				if (son != null && !alreadyVisited.contains(son.getName())) {
-					stack.push(son);
-					alreadyVisited.add(son.getName());
-				}
-			}
-		}
-		return alreadyVisited;
+		return new ArrayList<String>(ph.getInheritedGroupNames(start));
 	}
 
 	/**
@@ -19,6 +19,7 @@ package org.anjocaido.groupmanager.permissions;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -63,6 +64,12 @@ public class BukkitPermissions {
 	protected boolean dumpAllPermissions = true;
 	protected boolean dumpMatchedPermissions = true;
 	private boolean player_join = false;
+	/**
+	 * All children of registered permissions, filled on demand and cleared
+	 * when the registered permissions are collected again.
+	 */
+	private final Map<String, Map<String, Boolean>> childrenCache = new HashMap<String, Map<String, Boolean>>();
+	private volatile int generation = 0;
 
 	/**
 	 * @return the player_join
@@ -120,6 +127,10 @@ public class BukkitPermissions {
 	public void collectPermissions() {
 
 		registeredPermissions.clear();
+		synchronized (childrenCache) {
+			childrenCache.clear();
+		}
+		generation++;
 
 		for (Permission perm : Bukkit.getPluginManager().getPermissions()) {
 			registeredPermissions.put(perm.getName().toLowerCase(), perm);
@@ -127,6 +138,17 @@ public class BukkitPermissions {
 
 	}
 
+	/**
+	 * Changes every time the registered permissions are collected, so caches
+	 * built from them can tell they are outdated.
+	 * 
+	 * @return the current generation
+	 */
+	public int getGeneration() {
+
+		return generation;
+	}
+
 	public void updatePermissions(Player player) {
 
 		this.updatePermissions(player, null);
@@ -187,6 +209,10 @@ public class BukkitPermissions {
 		try { // Codename_B source
 			@SuppressWarnings("unchecked")
 			Map<String, Boolean> orig = (Map<String, Boolean>) permissions.get(attachment);
+			// Nothing changed, skip the expensive recalculation.
+			if (orig.size() == newPerms.size() && new ArrayList<Map.Entry<String, Boolean>>(orig.entrySet()).equals(new ArrayList<Map.Entry<String, Boolean>>(newPerms.entrySet()))) {
+				return;
+			}
 			// Clear the map (faster than removing the attachment and recalculating)
 			orig.clear();
 			// Then whack our map into there
@@ -277,6 +303,27 @@ public class BukkitPermissions {
 	 */
 	public Map<String, Boolean> getAllChildren(String node, Set<String> playerPermArray) {
 
+		// Without negations to check, the result only depends on the registered permissions.
+		if (playerPermArray.isEmpty()) {
+			synchronized (childrenCache) {
+				if (childrenCache.containsKey(node)) {
+					return childrenCache.get(node);
+				}
+			}
+			Map<String, Boolean> children = findAllChildren(node, playerPermArray);
+			if (children != null) {
+				children = Collections.unmodifiableMap(children);
+			}
+			synchronized (childrenCache) {
+				childrenCache.put(node, children);
+			}
+			return children;
+		}
+		return findAllChildren(node, playerPermArray);
+	}
+
+	private Map<String, Boolean> findAllChildren(String node, Set<String> playerPermArray) {
+
 		LinkedList<String> stack = new LinkedList<String>();
 		Map<String, Boolean> alreadyVisited = new HashMap<String, Boolean>();
 		stack.push(node);
@@ -0,0 +1,127 @@
+package org.anjocaido.groupmanager.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The permission nodes of one DataUnit compiled into a character tree.
+ *
+ * It gives the same answer as comparing the sorted node list one by one
+ * with comparePermissionString and taking the first match, but only walks
+ * the asked permission once.
+ */
+public class PermissionTrie {
+
+	private final Node root = new Node();
+
+	/**
+	 * @param sortedPermissions the permission nodes, already sorted with
+	 *            StringPermissionComparator
+	 */
+	public PermissionTrie(List<String> sortedPermissions) {
+
+		int index = 0;
+		for (String access : sortedPermissions) {
+			add(access, index++);
+		}
+	}
+
+	private void add(String access, int index) {
+
+		if (access == null || access.isEmpty()) {
+			return;
+		}
+		PermissionCheckResult.Type type = PermissionCheckResult.Type.FOUND;
+		int start = 0;
+		if (access.charAt(0) == '+') {
+			type = PermissionCheckResult.Type.EXCEPTION;
+			start = 1;
+		} else if (access.charAt(0) == '-') {
+			type = PermissionCheckResult.Type.NEGATION;
+			start = 1;
+		}
+		// A lone '+' or '-' matches everything, like in comparePermissionString.
+		boolean wildcard = start >= access.length() || access.charAt(access.length() - 1) == '*';
+		int end = wildcard ? Math.max(start, access.length() - 1) : access.length();
+		Node node = root;
+		for (int i = start; i < end; i++) {
+			node = node.getOrCreate(Character.toLowerCase(access.charAt(i)));
+		}
+		if (wildcard) {
+			if (index < node.wildcardIndex) {
+				node.wildcardIndex = index;
+				node.wildcardType = type;
+			}
+		} else {
+			if (index < node.exactIndex) {
+				node.exactIndex = index;
+				node.exactType = type;
+			}
+		}
+	}
+
+	/**
+	 * Finds the first matching node for the permission.
+	 *
+	 * @param permission full permission name, a leading '+' or '-' is
+	 *            ignored
+	 * @return the type of the first matching node, NOTFOUND if none matches
+	 */
+	public PermissionCheckResult.Type check(String permission) {
+
+		if (permission == null || permission.isEmpty()) {
+			return PermissionCheckResult.Type.NOTFOUND;
+		}
+		int start = (permission.charAt(0) == '+' || permission.charAt(0) == '-') ? 1 : 0;
+		int bestIndex = Integer.MAX_VALUE;
+		PermissionCheckResult.Type bestType = PermissionCheckResult.Type.NOTFOUND;
+		Node node = root;
+		for (int i = start; node != null; i++) {
+			if (node.wildcardIndex < bestIndex) {
+				bestIndex = node.wildcardIndex;
+				bestType = node.wildcardType;
+			}
+			if (i == permission.length()) {
+				if (node.exactIndex < bestIndex) {
+					bestType = node.exactType;
+				}
+				break;
+			}
+			node = node.get(Character.toLowerCase(permission.charAt(i)));
+		}
+		return bestType;
+	}
+
+	private static final class Node {
+
+		private char[] keys = new char[0];
+		private Node[] children = new Node[0];
+		private int exactIndex = Integer.MAX_VALUE;
+		private PermissionCheckResult.Type exactType;
+		private int wildcardIndex = Integer.MAX_VALUE;
+		private PermissionCheckResult.Type wildcardType;
+
+		Node get(char key) {
+
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] == key) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		Node getOrCreate(char key) {
+
+			Node child = get(key);
+			if (child == null) {
+				child = new Node();
+				keys = Arrays.copyOf(keys, keys.length + 1);
+				children = Arrays.copyOf(children, children.length + 1);
+				keys[keys.length - 1] = key;
+				children[children.length - 1] = child;
+			}
+			return child;
+		}
+	}
+}
@@ -4,6 +4,7 @@ import static net.ess3.I18n._;
 import net.ess3.api.IEssentials;
 import net.ess3.api.IReload;
 import net.ess3.api.IUser;
+import net.ess3.protect.data.ProtectedBlockMemory;
 import net.ess3.protect.data.ProtectedBlockMySQL;
 import net.ess3.protect.data.ProtectedBlockSQLite;
 import java.beans.PropertyVetoException;
@@ -109,10 +110,10 @@ public class EssentialsConnect
 						LOGGER.log(Level.SEVERE, null, ex);
 					}
 				}
-				/*if (protect.getSettingBool(ProtectConfig.memstore))
-				 {
-				 protect.setStorage(new ProtectedBlockMemory(protect.getStorage(), protect));
-				 }*/
+				if (settings.getData().isMemstore() && protect.getStorage() != null)
+				{
+					protect.setStorage(new ProtectedBlockMemory(protect.getStorage(), protect));
+				}
 
 			}
 			finally
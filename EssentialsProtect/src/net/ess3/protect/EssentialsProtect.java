@@ -1,6 +1,7 @@
 package net.ess3.protect;
 
 import net.ess3.protect.data.IProtectedBlock;
+import net.ess3.timings.Timings;
 import java.util.logging.Filter;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -48,18 +49,19 @@ public class EssentialsProtect extends JavaPlugin implements IProtect
 			return;
 		}
 		ess = new EssentialsConnect(essPlugin, this);
+		final Timings timings = ess.getEssentials().getTimings();
 
 		final EssentialsProtectPlayerListener playerListener = new EssentialsProtectPlayerListener(this);
-		pm.registerEvents(playerListener, this);
+		timings.registerEvents(playerListener, this);
 
 		final EssentialsProtectBlockListener blockListener = new EssentialsProtectBlockListener(this);
-		pm.registerEvents(blockListener, this);
+		timings.registerEvents(blockListener, this);
 
 		final EssentialsProtectEntityListener entityListener = new EssentialsProtectEntityListener(this);
-		pm.registerEvents(entityListener, this);
+		timings.registerEvents(entityListener, this);
 
 		final EssentialsProtectWeatherListener weatherListener = new EssentialsProtectWeatherListener(this);
-		pm.registerEvents(weatherListener, this);
+		timings.registerEvents(weatherListener, this);
 	}
 
 	private void enableEmergencyMode(final PluginManager pm)
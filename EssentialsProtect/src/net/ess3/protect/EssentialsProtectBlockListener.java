@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import static net.ess3.I18n._;
 import net.ess3.protect.data.IProtectedBlock;
+import net.ess3.settings.protect.Protect;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
@@ -27,205 +28,173 @@ public class EssentialsProtectBlockListener implements Listener
 	public void onBlockPlace(final BlockPlaceEvent event)
 	{
 		final Player user = event.getPlayer();
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		if (!Permissions.BUILD.isAuthorized(user))
 		{
-			if (!Permissions.BUILD.isAuthorized(user))
-			{
-				event.setCancelled(true);
-				return;
-			}
+			event.setCancelled(true);
+			return;
+		}
 
-			final Block blockPlaced = event.getBlockPlaced();
+		final Block blockPlaced = event.getBlockPlaced();
 
-			if (!BlockPlacePermissions.getPermission(blockPlaced.getType()).isAuthorized(user))
-			{
-				event.setCancelled(true);
-				return;
-			}
+		if (!BlockPlacePermissions.getPermission(blockPlaced.getType()).isAuthorized(user))
+		{
+			event.setCancelled(true);
+			return;
+		}
 
-			if (!Permissions.ALERTS_NOTRIGGER.isAuthorized(user)
-				&& settings.getData().getAlertOnPlacement().contains(blockPlaced.getType()))
-			{
-				prot.getEssentialsConnect().alert(user, blockPlaced.getType().toString(), _("alertPlaced"));
-			}
+		if (!Permissions.ALERTS_NOTRIGGER.isAuthorized(user)
+			&& settings.getAlertOnPlacement().contains(blockPlaced.getType()))
+		{
+			prot.getEssentialsConnect().alert(user, blockPlaced.getType().toString(), _("alertPlaced"));
+		}
 
-			final Block below = blockPlaced.getRelative(BlockFace.DOWN);
-			if ((below.getType() == Material.RAILS || below.getType() == Material.POWERED_RAIL || below.getType() == Material.DETECTOR_RAIL)
-				&& settings.getData().getSignsAndRails().isPreventBlockAboveRails()
-				&& isProtected(below, user, settings))
-			{
-				event.setCancelled(true);
-				return;
-			}
+		final Block below = blockPlaced.getRelative(BlockFace.DOWN);
+		if ((below.getType() == Material.RAILS || below.getType() == Material.POWERED_RAIL || below.getType() == Material.DETECTOR_RAIL)
+			&& settings.getSignsAndRails().isPreventBlockAboveRails()
+			&& isProtected(below, user, settings))
+		{
+			event.setCancelled(true);
+			return;
+		}
 
-			final List<Block> protect = new ArrayList<Block>();
-			if ((blockPlaced.getType() == Material.RAILS || blockPlaced.getType() == Material.POWERED_RAIL || blockPlaced.getType() == Material.DETECTOR_RAIL)
-				&& settings.getData().getSignsAndRails().isProtectRails()
-				&& Permissions.RAILS.isAuthorized(user))
-			{
-				protect.add(blockPlaced);
-				if (settings.getData().getSignsAndRails().isBlockBelow()
-					&& !isProtected(blockPlaced.getRelative(BlockFace.DOWN), user, settings))
-				{
-					protect.add(blockPlaced.getRelative(BlockFace.DOWN));
-				}
-			}
-			/*if ((blockPlaced.getType() == Material.SIGN_POST || blockPlaced.getType() == Material.WALL_SIGN)
-			 && settings.getData().getSignsAndRails().isProtectSigns()
-			 && user.isAuthorized("essentials.protect"))
-			 {
-			 protect.add(blockPlaced);
-			 if (settings.getData().getSignsAndRails().isBlockBelow()
-			 && event.getBlockAgainst().getType() != Material.SIGN_POST
-			 && event.getBlockAgainst().getType() != Material.WALL_SIGN
-			 && !isProtected(event.getBlockAgainst(), user, settings))
-			 {
-			 protect.add(event.getBlockAgainst());
-			 }
-			 }*/
-			for (Block block : protect)
+		final List<Block> protect = new ArrayList<Block>();
+		if ((blockPlaced.getType() == Material.RAILS || blockPlaced.getType() == Material.POWERED_RAIL || blockPlaced.getType() == Material.DETECTOR_RAIL)
+			&& settings.getSignsAndRails().isProtectRails()
+			&& Permissions.RAILS.isAuthorized(user))
+		{
+			protect.add(blockPlaced);
+			if (settings.getSignsAndRails().isBlockBelow()
+				&& !isProtected(blockPlaced.getRelative(BlockFace.DOWN), user, settings))
 			{
-				prot.getStorage().protectBlock(block, user.getName());
+				protect.add(blockPlaced.getRelative(BlockFace.DOWN));
 			}
 		}
-		finally
+		/*if ((blockPlaced.getType() == Material.SIGN_POST || blockPlaced.getType() == Material.WALL_SIGN)
+		 && settings.getSignsAndRails().isProtectSigns()
+		 && user.isAuthorized("essentials.protect"))
+		 {
+		 protect.add(blockPlaced);
+		 if (settings.getSignsAndRails().isBlockBelow()
+		 && event.getBlockAgainst().getType() != Material.SIGN_POST
+		 && event.getBlockAgainst().getType() != Material.WALL_SIGN
+		 && !isProtected(event.getBlockAgainst(), user, settings))
+		 {
+		 protect.add(event.getBlockAgainst());
+		 }
+		 }*/
+		for (Block block : protect)
 		{
-			settings.unlock();
+			prot.getStorage().protectBlock(block, user.getName());
 		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onBlockIgnite(BlockIgniteEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		final Block block = event.getBlock();
+		if ((block.getType() == Material.RAILS || block.getType() == Material.POWERED_RAIL || block.getType() == Material.DETECTOR_RAIL)
+			&& settings.getSignsAndRails().isProtectRails())
 		{
-			final Block block = event.getBlock();
-			if ((block.getType() == Material.RAILS || block.getType() == Material.POWERED_RAIL || block.getType() == Material.DETECTOR_RAIL)
-				&& settings.getData().getSignsAndRails().isProtectRails())
-			{
-				event.setCancelled(true);
-				return;
-			}
-			if ((block.getType() == Material.WALL_SIGN || block.getType() == Material.SIGN_POST)
-				&& settings.getData().getSignsAndRails().isProtectSigns())
-			{
-				event.setCancelled(true);
-				return;
-			}
-			if (event.getBlock().getType() == Material.OBSIDIAN
-				|| event.getBlock().getRelative(BlockFace.DOWN).getType() == Material.OBSIDIAN)
-			{
-				event.setCancelled(settings.getData().getPrevent().isPortalCreation());
-				return;
-			}
+			event.setCancelled(true);
+			return;
+		}
+		if ((block.getType() == Material.WALL_SIGN || block.getType() == Material.SIGN_POST)
+			&& settings.getSignsAndRails().isProtectSigns())
+		{
+			event.setCancelled(true);
+			return;
+		}
+		if (event.getBlock().getType() == Material.OBSIDIAN
+			|| event.getBlock().getRelative(BlockFace.DOWN).getType() == Material.OBSIDIAN)
+		{
+			event.setCancelled(settings.getPrevent().isPortalCreation());
+			return;
+		}
 
-			if (event.getCause().equals(BlockIgniteEvent.IgniteCause.SPREAD))
-			{
-				event.setCancelled(settings.getData().getPrevent().isFirespread());
-				return;
-			}
+		if (event.getCause().equals(BlockIgniteEvent.IgniteCause.SPREAD))
+		{
+			event.setCancelled(settings.getPrevent().isFirespread());
+			return;
+		}
 
-			if (event.getCause().equals(BlockIgniteEvent.IgniteCause.FLINT_AND_STEEL) && event.getPlayer() != null)
-			{
-				event.setCancelled(Permissions.USEFLINTSTEEL.isAuthorized(event.getPlayer()));
-				return;
-			}
+		if (event.getCause().equals(BlockIgniteEvent.IgniteCause.FLINT_AND_STEEL) && event.getPlayer() != null)
+		{
+			event.setCancelled(Permissions.USEFLINTSTEEL.isAuthorized(event.getPlayer()));
+			return;
+		}
 
-			if (event.getCause().equals(BlockIgniteEvent.IgniteCause.LAVA))
-			{
-				event.setCancelled(settings.getData().getPrevent().isLavaFirespread());
-				return;
-			}
-			if (event.getCause().equals(BlockIgniteEvent.IgniteCause.LIGHTNING))
-			{
-				event.setCancelled(settings.getData().getPrevent().isLightningFirespread());
-				return;
-			}
+		if (event.getCause().equals(BlockIgniteEvent.IgniteCause.LAVA))
+		{
+			event.setCancelled(settings.getPrevent().isLavaFirespread());
+			return;
 		}
-		finally
+		if (event.getCause().equals(BlockIgniteEvent.IgniteCause.LIGHTNING))
 		{
-			settings.unlock();
+			event.setCancelled(settings.getPrevent().isLightningFirespread());
+			return;
 		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onBlockFromTo(final BlockFromToEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		final Block toBlock = event.getToBlock();
+		if ((toBlock.getType() == Material.RAILS || toBlock.getType() == Material.POWERED_RAIL || toBlock.getType() == Material.DETECTOR_RAIL)
+			&& settings.getSignsAndRails().isProtectRails())
 		{
-			final Block toBlock = event.getToBlock();
-			if ((toBlock.getType() == Material.RAILS || toBlock.getType() == Material.POWERED_RAIL || toBlock.getType() == Material.DETECTOR_RAIL)
-				&& settings.getData().getSignsAndRails().isProtectRails())
-			{
-				event.setCancelled(true);
-				return;
-			}
-			if ((toBlock.getType() == Material.WALL_SIGN || toBlock.getType() == Material.SIGN_POST)
-				&& settings.getData().getSignsAndRails().isProtectSigns())
-			{
-				event.setCancelled(true);
-				return;
-			}
-
-			final Block block = event.getBlock();
-			if (block.getType() == Material.WATER || block.getType() == Material.STATIONARY_WATER)
-			{
-				event.setCancelled(settings.getData().getPrevent().isWaterFlow());
-				return;
-			}
+			event.setCancelled(true);
+			return;
+		}
+		if ((toBlock.getType() == Material.WALL_SIGN || toBlock.getType() == Material.SIGN_POST)
+			&& settings.getSignsAndRails().isProtectSigns())
+		{
+			event.setCancelled(true);
+			return;
+		}
 
-			if (block.getType() == Material.LAVA || block.getType() == Material.STATIONARY_LAVA)
-			{
-				event.setCancelled(settings.getData().getPrevent().isLavaFlow());
-				return;
-			}
-			// TODO: Test if this still works
-			/*
-			 * if (block.getType() == Material.AIR) {
-			 * event.setCancelled(prot.getSettingBool(ProtectConfig.prevent_water_bucket_flow)); return; }
-			 */
+		final Block block = event.getBlock();
+		if (block.getType() == Material.WATER || block.getType() == Material.STATIONARY_WATER)
+		{
+			event.setCancelled(settings.getPrevent().isWaterFlow());
+			return;
 		}
-		finally
+
+		if (block.getType() == Material.LAVA || block.getType() == Material.STATIONARY_LAVA)
 		{
-			settings.unlock();
+			event.setCancelled(settings.getPrevent().isLavaFlow());
+			return;
 		}
+		// TODO: Test if this still works
+		/*
+		 * if (block.getType() == Material.AIR) {
+		 * event.setCancelled(prot.getSettingBool(ProtectConfig.prevent_water_bucket_flow)); return; }
+		 */
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onBlockBurn(final BlockBurnEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		final Block block = event.getBlock();
+		if ((block.getType() == Material.RAILS || block.getType() == Material.POWERED_RAIL || block.getType() == Material.DETECTOR_RAIL)
+			&& settings.getSignsAndRails().isProtectRails())
 		{
-			final Block block = event.getBlock();
-			if ((block.getType() == Material.RAILS || block.getType() == Material.POWERED_RAIL || block.getType() == Material.DETECTOR_RAIL)
-				&& settings.getData().getSignsAndRails().isProtectRails())
-			{
-				event.setCancelled(true);
-				return;
-			}
-			if ((block.getType() == Material.WALL_SIGN || block.getType() == Material.SIGN_POST)
-				&& settings.getData().getSignsAndRails().isProtectSigns())
-			{
-				event.setCancelled(true);
-				return;
-			}
-			if (settings.getData().getPrevent().isFirespread())
-			{
-				event.setCancelled(true);
-				return;
-			}
+			event.setCancelled(true);
+			return;
+		}
+		if ((block.getType() == Material.WALL_SIGN || block.getType() == Material.SIGN_POST)
+			&& settings.getSignsAndRails().isProtectSigns())
+		{
+			event.setCancelled(true);
+			return;
 		}
-		finally
+		if (settings.getPrevent().isFirespread())
 		{
-			settings.unlock();
+			event.setCancelled(true);
+			return;
 		}
 	}
 	private final static BlockFace[] faces = new BlockFace[]
@@ -256,36 +225,24 @@ public class EssentialsProtectBlockListener implements Listener
 			event.setCancelled(true);
 			return;
 		}
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
-		{
-			final Material type = block.getType();
+		final Protect settings = prot.getSettings().getSnapshot();
+		final Material type = block.getType();
 
-			if (!Permissions.ALERTS_NOTRIGGER.isAuthorized(user) && settings.getData().getAlertOnBreak().contains(type))
-			{
-				prot.getEssentialsConnect().alert(user, type.toString(), _("alertBroke"));
-			}
-			final IProtectedBlock storage = prot.getStorage();
+		if (!Permissions.ALERTS_NOTRIGGER.isAuthorized(user) && settings.getAlertOnBreak().contains(type))
+		{
+			prot.getEssentialsConnect().alert(user, type.toString(), _("alertBroke"));
+		}
+		final IProtectedBlock storage = prot.getStorage();
 
-			if (Permissions.ADMIN.isAuthorized(user))
+		if (Permissions.ADMIN.isAuthorized(user))
+		{
+			if (type == Material.WALL_SIGN || type == Material.SIGN_POST || type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL)
 			{
-				if (type == Material.WALL_SIGN || type == Material.SIGN_POST || type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL)
+				storage.unprotectBlock(block);
+				if (type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL || type == Material.SIGN_POST)
 				{
-					storage.unprotectBlock(block);
-					if (type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL || type == Material.SIGN_POST)
-					{
-						final Block below = block.getRelative(BlockFace.DOWN);
-						storage.unprotectBlock(below);
-					}
-					else
-					{
-						for (BlockFace blockFace : faces)
-						{
-							final Block against = block.getRelative(blockFace);
-							storage.unprotectBlock(against);
-						}
-					}
+					final Block below = block.getRelative(BlockFace.DOWN);
+					storage.unprotectBlock(below);
 				}
 				else
 				{
@@ -298,30 +255,30 @@ public class EssentialsProtectBlockListener implements Listener
 			}
 			else
 			{
-
-				final boolean isProtected = isProtected(block, user, settings);
-				if (isProtected)
+				for (BlockFace blockFace : faces)
 				{
-					event.setCancelled(true);
+					final Block against = block.getRelative(blockFace);
+					storage.unprotectBlock(against);
 				}
-				else
+			}
+		}
+		else
+		{
+
+			final boolean isProtected = isProtected(block, user, settings);
+			if (isProtected)
+			{
+				event.setCancelled(true);
+			}
+			else
+			{
+				if (type == Material.WALL_SIGN || type == Material.SIGN_POST || type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL)
 				{
-					if (type == Material.WALL_SIGN || type == Material.SIGN_POST || type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL)
+					storage.unprotectBlock(block);
+					if (type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL || type == Material.SIGN_POST)
 					{
-						storage.unprotectBlock(block);
-						if (type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL || type == Material.SIGN_POST)
-						{
-							final Block below = block.getRelative(BlockFace.DOWN);
-							storage.unprotectBlock(below);
-						}
-						else
-						{
-							for (BlockFace blockFace : faces)
-							{
-								final Block against = block.getRelative(blockFace);
-								storage.unprotectBlock(against);
-							}
-						}
+						final Block below = block.getRelative(BlockFace.DOWN);
+						storage.unprotectBlock(below);
 					}
 					else
 					{
@@ -332,85 +289,25 @@ public class EssentialsProtectBlockListener implements Listener
 						}
 					}
 				}
-			}
-		}
-		finally
-		{
-			settings.unlock();
-		}
-	}
-
-	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-	public void onBlockPistonExtend(final BlockPistonExtendEvent event)
-	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
-		{
-			for (Block block : event.getBlocks())
-			{
-				if (settings.getData().getPrevent().getPistonPush().contains(block.getType()))
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if ((block.getRelative(BlockFace.UP).getType() == Material.RAILS
-					 || block.getType() == Material.RAILS
-					 || block.getRelative(BlockFace.UP).getType() == Material.POWERED_RAIL
-					 || block.getType() == Material.POWERED_RAIL
-					 || block.getRelative(BlockFace.UP).getType() == Material.DETECTOR_RAIL
-					 || block.getType() == Material.DETECTOR_RAIL)
-					&& settings.getData().getSignsAndRails().isProtectRails())
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if (settings.getData().getSignsAndRails().isProtectSigns())
+				else
 				{
 					for (BlockFace blockFace : faces)
 					{
-						if (blockFace == BlockFace.DOWN)
-						{
-							continue;
-						}
-						final Block sign = block.getRelative(blockFace);
-						if ((blockFace == BlockFace.UP || blockFace == BlockFace.SELF)
-							&& sign.getType() == Material.SIGN_POST)
-						{
-							event.setCancelled(true);
-							return;
-						}
-						if ((blockFace == BlockFace.NORTH || blockFace == BlockFace.EAST
-							 || blockFace == BlockFace.SOUTH || blockFace == BlockFace.WEST
-							 || blockFace == BlockFace.SELF)
-							&& sign.getType() == Material.WALL_SIGN)
-						{
-							event.setCancelled(true);
-							return;
-						}
+						final Block against = block.getRelative(blockFace);
+						storage.unprotectBlock(against);
 					}
 				}
 			}
 		}
-		finally
-		{
-			settings.unlock();
-		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-	public void onBlockPistonRetract(final BlockPistonRetractEvent event)
+	public void onBlockPistonExtend(final BlockPistonExtendEvent event)
 	{
-		if (!event.isSticky())
-		{
-			return;
-		}
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		for (Block block : event.getBlocks())
 		{
-			final Block block = event.getRetractLocation().getBlock();
-			if (settings.getData().getPrevent().getPistonPush().contains(block.getType()))
+			if (settings.getPrevent().getPistonPush().contains(block.getType()))
 			{
 				event.setCancelled(true);
 				return;
@@ -421,12 +318,12 @@ public class EssentialsProtectBlockListener implements Listener
 				 || block.getType() == Material.POWERED_RAIL
 				 || block.getRelative(BlockFace.UP).getType() == Material.DETECTOR_RAIL
 				 || block.getType() == Material.DETECTOR_RAIL)
-				&& settings.getData().getSignsAndRails().isProtectRails())
+				&& settings.getSignsAndRails().isProtectRails())
 			{
 				event.setCancelled(true);
 				return;
 			}
-			if (settings.getData().getSignsAndRails().isProtectSigns())
+			if (settings.getSignsAndRails().isProtectSigns())
 			{
 				for (BlockFace blockFace : faces)
 				{
@@ -452,16 +349,64 @@ public class EssentialsProtectBlockListener implements Listener
 				}
 			}
 		}
-		finally
+	}
+
+	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+	public void onBlockPistonRetract(final BlockPistonRetractEvent event)
+	{
+		if (!event.isSticky())
 		{
-			settings.unlock();
+			return;
+		}
+		final Protect settings = prot.getSettings().getSnapshot();
+		final Block block = event.getRetractLocation().getBlock();
+		if (settings.getPrevent().getPistonPush().contains(block.getType()))
+		{
+			event.setCancelled(true);
+			return;
+		}
+		if ((block.getRelative(BlockFace.UP).getType() == Material.RAILS
+			 || block.getType() == Material.RAILS
+			 || block.getRelative(BlockFace.UP).getType() == Material.POWERED_RAIL
+			 || block.getType() == Material.POWERED_RAIL
+			 || block.getRelative(BlockFace.UP).getType() == Material.DETECTOR_RAIL
+			 || block.getType() == Material.DETECTOR_RAIL)
+			&& settings.getSignsAndRails().isProtectRails())
+		{
+			event.setCancelled(true);
+			return;
+		}
+		if (settings.getSignsAndRails().isProtectSigns())
+		{
+			for (BlockFace blockFace : faces)
+			{
+				if (blockFace == BlockFace.DOWN)
+				{
+					continue;
+				}
+				final Block sign = block.getRelative(blockFace);
+				if ((blockFace == BlockFace.UP || blockFace == BlockFace.SELF)
+					&& sign.getType() == Material.SIGN_POST)
+				{
+					event.setCancelled(true);
+					return;
+				}
+				if ((blockFace == BlockFace.NORTH || blockFace == BlockFace.EAST
+					 || blockFace == BlockFace.SOUTH || blockFace == BlockFace.WEST
+					 || blockFace == BlockFace.SELF)
+					&& sign.getType() == Material.WALL_SIGN)
+				{
+					event.setCancelled(true);
+					return;
+				}
+			}
 		}
 	}
 
-	private boolean isProtected(final Block block, final Player user, final ProtectHolder settings)
+	private boolean isProtected(final Block block, final Player user, final Protect settings)
 	{
 		final Material type = block.getType();
-		if (settings.getData().getSignsAndRails().isProtectSigns())
+		if (settings.getSignsAndRails().isProtectSigns())
 		{
 			if (type == Material.WALL_SIGN || type == Material.SIGN_POST)
 			{
@@ -494,13 +439,13 @@ public class EssentialsProtectBlockListener implements Listener
 			}
 
 		}
-		if (settings.getData().getSignsAndRails().isProtectRails())
+		if (settings.getSignsAndRails().isProtectRails())
 		{
 			if (type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL)
 			{
 				return prot.getStorage().isProtected(block, user.getName());
 			}
-			if (settings.getData().getSignsAndRails().isBlockBelow())
+			if (settings.getSignsAndRails().isBlockBelow())
 			{
 				final Block up = block.getRelative(BlockFace.UP);
 				if (up != null && (type == Material.RAILS || type == Material.POWERED_RAIL || type == Material.DETECTOR_RAIL))
@@ -1,6 +1,7 @@
 package net.ess3.protect;
 
 import net.ess3.api.IEssentials;
+import net.ess3.settings.protect.Protect;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
@@ -26,214 +27,198 @@ public class EssentialsProtectEntityListener implements Listener
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onEntityDamage(final EntityDamageEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		final Entity target = event.getEntity();
+
+		if (target instanceof Villager && settings.getPrevent().isVillagerDeath())
 		{
-			final Entity target = event.getEntity();
+			event.setCancelled(true);
+			return;
+		}
+
+		final Player user = target instanceof Player ? (Player)target : null;
+		if (target instanceof Player && event instanceof EntityDamageByBlockEvent)
+		{
+			final DamageCause cause = event.getCause();
 
-			if (target instanceof Villager && settings.getData().getPrevent().isVillagerDeath())
+			if (cause == DamageCause.CONTACT
+				&& (Permissions.PREVENTDAMAGE_CONTACT.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
 				event.setCancelled(true);
 				return;
 			}
-
-			final Player user = target instanceof Player ? (Player)target : null;
-			if (target instanceof Player && event instanceof EntityDamageByBlockEvent)
+			if (cause == DamageCause.LAVA
+				&& (Permissions.PREVENTDAMAGE_LAVADAMAGE.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
-				final DamageCause cause = event.getCause();
-
-				if (cause == DamageCause.CONTACT
-					&& (Permissions.PREVENTDAMAGE_CONTACT.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if (cause == DamageCause.LAVA
-					&& (Permissions.PREVENTDAMAGE_LAVADAMAGE.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if (cause == DamageCause.BLOCK_EXPLOSION
-					&& (Permissions.PREVENTDAMAGE_TNT.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
+				event.setCancelled(true);
+				return;
 			}
-
-			if (target instanceof Player && event instanceof EntityDamageByEntityEvent)
+			if (cause == DamageCause.BLOCK_EXPLOSION
+				&& (Permissions.PREVENTDAMAGE_TNT.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
-				final EntityDamageByEntityEvent edEvent = (EntityDamageByEntityEvent)event;
-				final Entity eAttack = edEvent.getDamager();
-				final Player attacker = eAttack instanceof Player ? (Player)eAttack : null;
-
-				// PVP Settings
-				if (target instanceof Player && eAttack instanceof Player
-					&& (!Permissions.PVP.isAuthorized(user) || !Permissions.PVP.isAuthorized(attacker)))
-				{
-					event.setCancelled(true);
-					return;
-				}
+				event.setCancelled(true);
+				return;
+			}
+		}
 
-				//Creeper explode prevention
-				if (eAttack instanceof Creeper && settings.getData().getPrevent().isCreeperExplosion()
-					|| (Permissions.PREVENTDAMAGE_CREEPER.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
+		if (target instanceof Player && event instanceof EntityDamageByEntityEvent)
+		{
+			final EntityDamageByEntityEvent edEvent = (EntityDamageByEntityEvent)event;
+			final Entity eAttack = edEvent.getDamager();
+			final Player attacker = eAttack instanceof Player ? (Player)eAttack : null;
 
-				if ((event.getEntity() instanceof Fireball || event.getEntity() instanceof SmallFireball)
-					&& (Permissions.PREVENTDAMAGE_FIREBALL.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
+			// PVP Settings
+			if (target instanceof Player && eAttack instanceof Player
+				&& (!Permissions.PVP.isAuthorized(user) || !Permissions.PVP.isAuthorized(attacker)))
+			{
+				event.setCancelled(true);
+				return;
+			}
 
-				if (eAttack instanceof TNTPrimed
-					&& (Permissions.PREVENTDAMAGE_TNT.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
+			//Creeper explode prevention
+			if (eAttack instanceof Creeper && settings.getPrevent().isCreeperExplosion()
+				|| (Permissions.PREVENTDAMAGE_CREEPER.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
+			{
+				event.setCancelled(true);
+				return;
+			}
 
-				if (edEvent.getDamager() instanceof Projectile
-					&& ((Permissions.PREVENTDAMAGE_PROJECTILES.isAuthorized(user)
-						 && !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user))
-						|| (((Projectile)edEvent.getDamager()).getShooter() instanceof Player
-							&& (!Permissions.PVP.isAuthorized(user)
-								|| !Permissions.PVP.isAuthorized((Player)((Projectile)edEvent.getDamager()).getShooter())))))
-				{
-					event.setCancelled(true);
-					return;
-				}
+			if ((event.getEntity() instanceof Fireball || event.getEntity() instanceof SmallFireball)
+				&& (Permissions.PREVENTDAMAGE_FIREBALL.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
+			{
+				event.setCancelled(true);
+				return;
 			}
 
-			final DamageCause cause = event.getCause();
-			if (target instanceof Player)
+			if (eAttack instanceof TNTPrimed
+				&& (Permissions.PREVENTDAMAGE_TNT.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
-				if (cause == DamageCause.FALL
-					&& (Permissions.PREVENTDAMAGE_FALL.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
+				event.setCancelled(true);
+				return;
+			}
 
-				if (cause == DamageCause.SUFFOCATION
-					&& (Permissions.PREVENTDAMAGE_SUFFOCATION.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if ((cause == DamageCause.FIRE
-					 || cause == DamageCause.FIRE_TICK)
-					&& (Permissions.PREVENTDAMAGE_FIRE.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if (cause == DamageCause.DROWNING
-					&& (Permissions.PREVENTDAMAGE_DROWNING.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if (cause == DamageCause.LIGHTNING
-					&& (Permissions.PREVENTDAMAGE_LIGHTNING.isAuthorized(user)
-						&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
-				{
-					event.setCancelled(true);
-					return;
-				}
+			if (edEvent.getDamager() instanceof Projectile
+				&& ((Permissions.PREVENTDAMAGE_PROJECTILES.isAuthorized(user)
+					 && !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user))
+					|| (((Projectile)edEvent.getDamager()).getShooter() instanceof Player
+						&& (!Permissions.PVP.isAuthorized(user)
+							|| !Permissions.PVP.isAuthorized((Player)((Projectile)edEvent.getDamager()).getShooter())))))
+			{
+				event.setCancelled(true);
+				return;
 			}
 		}
-		finally
-		{
-			settings.unlock();
-		}
-	}
 
-	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-	public void onEntityExplode(final EntityExplodeEvent event)
-	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final DamageCause cause = event.getCause();
+		if (target instanceof Player)
 		{
-			final int maxHeight = settings.getData().getCreeperMaxHeight();
-
-			if (event.getEntity() instanceof EnderDragon
-				&& settings.getData().getPrevent().isEnderdragonBlockdamage())
+			if (cause == DamageCause.FALL
+				&& (Permissions.PREVENTDAMAGE_FALL.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
 				event.setCancelled(true);
 				return;
 			}
-			else if (event.getEntity() instanceof Creeper
-					 && (settings.getData().getPrevent().isCreeperExplosion()
-						 || settings.getData().getPrevent().isCreeperBlockdamage()
-						 || (maxHeight >= 0 && event.getLocation().getBlockY() > maxHeight)))
+
+			if (cause == DamageCause.SUFFOCATION
+				&& (Permissions.PREVENTDAMAGE_SUFFOCATION.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
 				event.setCancelled(true);
-				event.getLocation().getWorld().createExplosion(event.getLocation(), 0F);
 				return;
 			}
-			else if (event.getEntity() instanceof TNTPrimed
-					 && settings.getData().getPrevent().isTntExplosion())
+			if ((cause == DamageCause.FIRE
+				 || cause == DamageCause.FIRE_TICK)
+				&& (Permissions.PREVENTDAMAGE_FIRE.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
 				event.setCancelled(true);
 				return;
 			}
-			else if ((event.getEntity() instanceof Fireball || event.getEntity() instanceof SmallFireball)
-					 && settings.getData().getPrevent().isFireballExplosion())
+			if (cause == DamageCause.DROWNING
+				&& (Permissions.PREVENTDAMAGE_DROWNING.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
 				event.setCancelled(true);
 				return;
 			}
-			// This code will prevent explosions near protected rails, signs or protected chests
-			// TODO: Use protect db instead of this code
-
-			for (Block block : event.blockList())
+			if (cause == DamageCause.LIGHTNING
+				&& (Permissions.PREVENTDAMAGE_LIGHTNING.isAuthorized(user)
+					&& !Permissions.PREVENTDAMAGE_NONE.isAuthorized(user)))
 			{
-				if ((block.getRelative(BlockFace.UP).getType() == Material.RAILS
-					 || block.getType() == Material.RAILS
-					 || block.getRelative(BlockFace.UP).getType() == Material.POWERED_RAIL
-					 || block.getType() == Material.POWERED_RAIL
-					 || block.getRelative(BlockFace.UP).getType() == Material.DETECTOR_RAIL
-					 || block.getType() == Material.DETECTOR_RAIL)
-					&& settings.getData().getSignsAndRails().isProtectRails())
-				{
-					event.setCancelled(true);
-					return;
-				}
-				if ((block.getType() == Material.WALL_SIGN
-					 || block.getRelative(BlockFace.NORTH).getType() == Material.WALL_SIGN
-					 || block.getRelative(BlockFace.EAST).getType() == Material.WALL_SIGN
-					 || block.getRelative(BlockFace.SOUTH).getType() == Material.WALL_SIGN
-					 || block.getRelative(BlockFace.WEST).getType() == Material.WALL_SIGN
-					 || block.getType() == Material.SIGN_POST
-					 || block.getRelative(BlockFace.UP).getType() == Material.SIGN_POST)
-					&& settings.getData().getSignsAndRails().isProtectSigns())
-				{
-					event.setCancelled(true);
-					return;
-				}
+				event.setCancelled(true);
+				return;
 			}
 		}
-		finally
+	}
+
+	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+	public void onEntityExplode(final EntityExplodeEvent event)
+	{
+		final Protect settings = prot.getSettings().getSnapshot();
+		final int maxHeight = settings.getCreeperMaxHeight();
+
+		if (event.getEntity() instanceof EnderDragon
+			&& settings.getPrevent().isEnderdragonBlockdamage())
+		{
+			event.setCancelled(true);
+			return;
+		}
+		else if (event.getEntity() instanceof Creeper
+				 && (settings.getPrevent().isCreeperExplosion()
+					 || settings.getPrevent().isCreeperBlockdamage()
+					 || (maxHeight >= 0 && event.getLocation().getBlockY() > maxHeight)))
+		{
+			event.setCancelled(true);
+			event.getLocation().getWorld().createExplosion(event.getLocation(), 0F);
+			return;
+		}
+		else if (event.getEntity() instanceof TNTPrimed
+				 && settings.getPrevent().isTntExplosion())
+		{
+			event.setCancelled(true);
+			return;
+		}
+		else if ((event.getEntity() instanceof Fireball || event.getEntity() instanceof SmallFireball)
+				 && settings.getPrevent().isFireballExplosion())
 		{
-			settings.unlock();
+			event.setCancelled(true);
+			return;
+		}
+		// This code will prevent explosions near protected rails, signs or protected chests
+		// TODO: Use protect db instead of this code
+
+		for (Block block : event.blockList())
+		{
+			if ((block.getRelative(BlockFace.UP).getType() == Material.RAILS
+				 || block.getType() == Material.RAILS
+				 || block.getRelative(BlockFace.UP).getType() == Material.POWERED_RAIL
+				 || block.getType() == Material.POWERED_RAIL
+				 || block.getRelative(BlockFace.UP).getType() == Material.DETECTOR_RAIL
+				 || block.getType() == Material.DETECTOR_RAIL)
+				&& settings.getSignsAndRails().isProtectRails())
+			{
+				event.setCancelled(true);
+				return;
+			}
+			if ((block.getType() == Material.WALL_SIGN
+				 || block.getRelative(BlockFace.NORTH).getType() == Material.WALL_SIGN
+				 || block.getRelative(BlockFace.EAST).getType() == Material.WALL_SIGN
+				 || block.getRelative(BlockFace.SOUTH).getType() == Material.WALL_SIGN
+				 || block.getRelative(BlockFace.WEST).getType() == Material.WALL_SIGN
+				 || block.getType() == Material.SIGN_POST
+				 || block.getRelative(BlockFace.UP).getType() == Material.SIGN_POST)
+				&& settings.getSignsAndRails().isProtectSigns())
+			{
+				event.setCancelled(true);
+				return;
+			}
 		}
 	}
 
@@ -259,37 +244,21 @@ public class EssentialsProtectEntityListener implements Listener
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onExplosionPrime(final ExplosionPrimeEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		if ((event.getEntity() instanceof Fireball || event.getEntity() instanceof SmallFireball)
+			&& settings.getPrevent().isFireballFire())
 		{
-			if ((event.getEntity() instanceof Fireball || event.getEntity() instanceof SmallFireball)
-				&& settings.getData().getPrevent().isFireballFire())
-			{
-				event.setFire(false);
-			}
-		}
-		finally
-		{
-			settings.unlock();
+			event.setFire(false);
 		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
 	public void onEntityChangeBlock(final EntityChangeBlockEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
-		{
-			if (event.getEntityType() == EntityType.ENDERMAN && settings.getData().getPrevent().isEndermanPickup())
-			{
-				event.setCancelled(true);
-			}
-		}
-		finally
+		final Protect settings = prot.getSettings().getSnapshot();
+		if (event.getEntityType() == EntityType.ENDERMAN && settings.getPrevent().isEndermanPickup())
 		{
-			settings.unlock();
+			event.setCancelled(true);
 		}
 	}
 }
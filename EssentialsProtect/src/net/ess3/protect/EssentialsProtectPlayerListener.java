@@ -2,6 +2,7 @@ package net.ess3.protect;
 
 import static net.ess3.I18n._;
 import net.ess3.api.IEssentials;
+import net.ess3.settings.protect.Protect;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
@@ -28,71 +29,63 @@ public class EssentialsProtectPlayerListener implements Listener
 		// Do not return if cancelled, because the interact event has 2 cancelled states.
 		final Player user = event.getPlayer();
 
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		if (event.hasItem()
+			&& (event.getItem().getType() == Material.WATER_BUCKET
+				|| event.getItem().getType() == Material.LAVA_BUCKET)
+			&& !Permissions.BUILD.isAuthorized(user))
 		{
-			if (event.hasItem()
-				&& (event.getItem().getType() == Material.WATER_BUCKET
-					|| event.getItem().getType() == Material.LAVA_BUCKET)
-				&& !Permissions.BUILD.isAuthorized(user))
+			if (settings.isWarnOnBuildDisallow())
 			{
-				if (settings.getData().isWarnOnBuildDisallow())
-				{
-					user.sendMessage(_("buildAlert"));
-				}
-				event.setCancelled(true);
-				return;
+				user.sendMessage(_("buildAlert"));
 			}
+			event.setCancelled(true);
+			return;
+		}
 
-			if (!Permissions.INTERACT.isAuthorized(user))
+		if (!Permissions.INTERACT.isAuthorized(user))
+		{
+			if (settings.isWarnOnBuildDisallow())
 			{
-				if (settings.getData().isWarnOnBuildDisallow())
-				{
-					user.sendMessage(_("buildAlert"));
-				}
-				event.setCancelled(true);
-				return;
+				user.sendMessage(_("buildAlert"));
 			}
+			event.setCancelled(true);
+			return;
+		}
 
-			final ItemStack item = event.getItem();
-			if (item != null
-				&& !ItemUsePermissions.getPermission(item.getType()).isAuthorized(user))
-			{
-				event.setCancelled(true);
-				return;
-			}
+		final ItemStack item = event.getItem();
+		if (item != null
+			&& !ItemUsePermissions.getPermission(item.getType()).isAuthorized(user))
+		{
+			event.setCancelled(true);
+			return;
+		}
 
-			if (Permissions.OWNERINFO.isAuthorized(user) && event.getAction() == Action.RIGHT_CLICK_BLOCK)
+		if (Permissions.OWNERINFO.isAuthorized(user) && event.getAction() == Action.RIGHT_CLICK_BLOCK)
+		{
+			final StringBuilder stringBuilder = new StringBuilder();
+			boolean first = true;
+			final Block blockClicked = event.getClickedBlock();
+			for (String owner : prot.getStorage().getOwners(blockClicked))
 			{
-				final StringBuilder stringBuilder = new StringBuilder();
-				boolean first = true;
-				final Block blockClicked = event.getClickedBlock();
-				for (String owner : prot.getStorage().getOwners(blockClicked))
-				{
-					if (!first)
-					{
-						stringBuilder.append(", ");
-					}
-					first = false;
-					stringBuilder.append(owner);
-				}
-				final String ownerNames = stringBuilder.toString();
-				if (ownerNames != null && !ownerNames.isEmpty())
+				if (!first)
 				{
-					user.sendMessage(_("protectionOwner", ownerNames));
+					stringBuilder.append(", ");
 				}
+				first = false;
+				stringBuilder.append(owner);
 			}
-			if (item != null
-				&& !Permissions.ALERTS_NOTRIGGER.isAuthorized(user)
-				&& settings.getData().getAlertOnUse().contains(item.getType()))
+			final String ownerNames = stringBuilder.toString();
+			if (ownerNames != null && !ownerNames.isEmpty())
 			{
-				prot.getEssentialsConnect().alert(user, item.getType().toString(), _("alertUsed"));
+				user.sendMessage(_("protectionOwner", ownerNames));
 			}
 		}
-		finally
+		if (item != null
+			&& !Permissions.ALERTS_NOTRIGGER.isAuthorized(user)
+			&& settings.getAlertOnUse().contains(item.getType()))
 		{
-			settings.unlock();
+			prot.getEssentialsConnect().alert(user, item.getType().toString(), _("alertUsed"));
 		}
 	}
 }
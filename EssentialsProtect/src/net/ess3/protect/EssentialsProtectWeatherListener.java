@@ -1,5 +1,6 @@
 package net.ess3.protect;
 
+import net.ess3.settings.protect.Protect;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -20,59 +21,35 @@ public class EssentialsProtectWeatherListener implements Listener
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onWeatherChange(final WeatherChangeEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
+		final Protect settings = prot.getSettings().getSnapshot();
+		if (!event.isCancelled()
+			&& settings.isDisableStorm()
+			&& event.toWeatherState())
 		{
-			if (!event.isCancelled()
-				&& settings.getData().isDisableStorm()
-				&& event.toWeatherState())
-			{
-				event.setCancelled(true);
-			}
-		}
-		finally
-		{
-			settings.unlock();
+			event.setCancelled(true);
 		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onLightningStrike(final LightningStrikeEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
-		{
-			if (!event.isCancelled()
-				&& settings.getData().isDisableLighting())
-			{
-				event.setCancelled(true);
-			}
-		}
-		finally
+		final Protect settings = prot.getSettings().getSnapshot();
+		if (!event.isCancelled()
+			&& settings.isDisableLighting())
 		{
-			settings.unlock();
+			event.setCancelled(true);
 		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onThunderChange(final ThunderChangeEvent event)
 	{
-		final ProtectHolder settings = prot.getSettings();
-		settings.acquireReadLock();
-		try
-		{
-			if (!event.isCancelled()
-				&& settings.getData().isDisableThunder()
-				&& event.toThunderState())
-			{
-				event.setCancelled(true);
-			}
-		}
-		finally
+		final Protect settings = prot.getSettings().getSnapshot();
+		if (!event.isCancelled()
+			&& settings.isDisableThunder()
+			&& event.toThunderState())
 		{
-			settings.unlock();
+			event.setCancelled(true);
 		}
 	}
 }
@@ -20,5 +20,10 @@ public interface IProtectedBlock
 
 	public int unprotectBlock(Block block);
 
+	/**
+	 * Removes all protections of the removed blocks first and then adds the new protections, in one go.
+	 */
+	public void applyChanges(List<OwnedBlock> removed, List<OwnedBlock> added);
+
 	public void onPluginDeactivation();
 }
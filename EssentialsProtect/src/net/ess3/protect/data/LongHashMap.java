@@ -0,0 +1,180 @@
+package net.ess3.protect.data;
+
+import java.util.Arrays;
+
+
+/**
+ * A hash map with primitive long keys and open addressing, so lookups don't create objects.
+ * Not thread safe.
+ */
+final class LongHashMap<V>
+{
+	private static final int MIN_CAPACITY = 16;
+	private transient long[] keys;
+	private transient Object[] values;
+	private transient int size;
+	private transient int mask;
+
+	public LongHashMap()
+	{
+		this(MIN_CAPACITY);
+	}
+
+	public LongHashMap(final int expectedSize)
+	{
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 < expectedSize * 4)
+		{
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	private void allocate(final int capacity)
+	{
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	private int slot(final long key)
+	{
+		final long hash = key * 0x9E3779B97F4A7C15L;
+		return (int)(hash ^ (hash >>> 32)) & mask;
+	}
+
+	public V get(final long key)
+	{
+		int i = slot(key);
+		while (values[i] != null)
+		{
+			if (keys[i] == key)
+			{
+				return (V)values[i];
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	public V put(final long key, final V value)
+	{
+		if (value == null)
+		{
+			throw new IllegalArgumentException("Null values are not allowed");
+		}
+		int i = slot(key);
+		while (values[i] != null)
+		{
+			if (keys[i] == key)
+			{
+				final V old = (V)values[i];
+				values[i] = value;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size * 4 > values.length * 3)
+		{
+			resize(values.length << 1);
+		}
+		return null;
+	}
+
+	public V remove(final long key)
+	{
+		int i = slot(key);
+		while (values[i] != null)
+		{
+			if (keys[i] == key)
+			{
+				final V old = (V)values[i];
+				values[i] = null;
+				size--;
+				shiftBack(i);
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Moves the following entries of the probe sequence into the freed slot, so lookups don't need tombstones.
+	 */
+	private void shiftBack(int free)
+	{
+		int i = (free + 1) & mask;
+		while (values[i] != null)
+		{
+			final int home = slot(keys[i]);
+			if (((i - home) & mask) >= ((i - free) & mask))
+			{
+				keys[free] = keys[i];
+				values[free] = values[i];
+				values[i] = null;
+				free = i;
+			}
+			i = (i + 1) & mask;
+		}
+	}
+
+	private void resize(final int capacity)
+	{
+		final long[] oldKeys = keys;
+		final Object[] oldValues = values;
+		allocate(capacity);
+		for (int j = 0; j < oldValues.length; j++)
+		{
+			if (oldValues[j] != null)
+			{
+				int i = slot(oldKeys[j]);
+				while (values[i] != null)
+				{
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * The number of slots, use together with {@link #keyAt(int)} and {@link #valueAt(int)} to iterate the map.
+	 */
+	int capacity()
+	{
+		return values.length;
+	}
+
+	long keyAt(final int slot)
+	{
+		return keys[slot];
+	}
+
+	/**
+	 * Returns the value in the slot, null if the slot is empty.
+	 */
+	V valueAt(final int slot)
+	{
+		return (V)values[slot];
+	}
+}
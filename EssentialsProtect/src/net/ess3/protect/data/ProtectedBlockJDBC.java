@@ -426,6 +426,100 @@ public abstract class ProtectedBlockJDBC implements IProtectedBlock
 		}
 	}
 
+	@Override
+	public void applyChanges(final List<OwnedBlock> removed, final List<OwnedBlock> added)
+	{
+		if (removed.isEmpty() && added.isEmpty())
+		{
+			return;
+		}
+		Connection conn = null;
+		PreparedStatement ps = null;
+		try
+		{
+			conn = cpds.getConnection();
+			conn.setAutoCommit(false);
+			if (!removed.isEmpty())
+			{
+				final OwnedBlock first = removed.get(0);
+				ps = getStatementDeleteByLocation(conn, first.world, first.x, first.y, first.z);
+				for (OwnedBlock ownedBlock : removed)
+				{
+					setLocation(ps, ownedBlock);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				ps.close();
+				ps = null;
+			}
+			if (!added.isEmpty())
+			{
+				final OwnedBlock first = added.get(0);
+				ps = getStatementInsert(conn, first.world, first.x, first.y, first.z, first.playerName);
+				for (OwnedBlock ownedBlock : added)
+				{
+					setLocation(ps, ownedBlock);
+					ps.setString(5, ownedBlock.playerName);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+			conn.commit();
+		}
+		catch (SQLException ex)
+		{
+			LOGGER.log(Level.SEVERE, null, ex);
+			if (conn != null)
+			{
+				try
+				{
+					conn.rollback();
+				}
+				catch (SQLException e)
+				{
+					LOGGER.log(Level.SEVERE, null, e);
+				}
+			}
+		}
+		finally
+		{
+			if (ps != null)
+			{
+				try
+				{
+					ps.close();
+				}
+				catch (SQLException ex)
+				{
+					LOGGER.log(Level.SEVERE, null, ex);
+				}
+			}
+			if (conn != null)
+			{
+				try
+				{
+					conn.setAutoCommit(true);
+					conn.close();
+				}
+				catch (SQLException ex)
+				{
+					LOGGER.log(Level.SEVERE, null, ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The insert and delete statements take the world and the coordinates as their first parameters.
+	 */
+	private void setLocation(final PreparedStatement ps, final OwnedBlock ownedBlock) throws SQLException
+	{
+		ps.setString(1, ownedBlock.world);
+		ps.setInt(2, ownedBlock.x);
+		ps.setInt(3, ownedBlock.y);
+		ps.setInt(4, ownedBlock.z);
+	}
+
 	@Override
 	public void onPluginDeactivation()
 	{
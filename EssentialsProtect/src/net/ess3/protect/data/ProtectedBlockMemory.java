@@ -1,66 +1,32 @@
 package net.ess3.protect.data;
 
 import java.util.*;
-import java.util.Map.Entry;
-import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.plugin.Plugin;
 
 
+/**
+ * Keeps all protections in memory and passes changes to the database in the background.
+ *
+ * The protections are split by world and chunk, the chunk and the position inside the chunk are packed
+ * into long keys, so a lookup doesn't create any objects. World and player names are replaced by ids.
+ * Changes are written to the database in batches by a {@link ProtectedBlockQueue}.
+ */
 public final class ProtectedBlockMemory implements IProtectedBlock
 {
 	private final transient List<String> worlds = new ArrayList<String>();
+	private final transient Map<String, Integer> worldIds = new HashMap<String, Integer>();
+	private final transient List<LongHashMap<LongHashMap<ProtectedBy>>> chunks = new ArrayList<LongHashMap<LongHashMap<ProtectedBy>>>();
 	private final transient List<String> playerNames = new ArrayList<String>();
+	private final transient Map<String, Integer> playerIds = new HashMap<String, Integer>();
 	private final transient IProtectedBlock storage;
-	private final transient Plugin plugin;
-
-
-	static class ProtectedLocation
-	{
-		private final transient int x;
-		private final transient int y;
-		private final transient int z;
-		private final transient int w;
-
-		public ProtectedLocation(final Block block, final int worldId)
-		{
-			this.x = block.getX();
-			this.y = block.getY();
-			this.z = block.getZ();
-			this.w = worldId;
-		}
-
-		public ProtectedLocation(final OwnedBlock ownedBlock, final int worldId)
-		{
-			this.x = ownedBlock.x;
-			this.y = ownedBlock.y;
-			this.z = ownedBlock.z;
-			this.w = worldId;
-		}
-
-		@Override
-		public boolean equals(final Object object)
-		{
-			if (object instanceof ProtectedLocation)
-			{
-				final ProtectedLocation pLoc = (ProtectedLocation)object;
-				return x == pLoc.x && y == pLoc.y && z == pLoc.z && w == pLoc.w;
-			}
-			return false;
-		}
-
-		@Override
-		public int hashCode()
-		{
-			return x ^ y ^ z ^ w;
-		}
-	}
+	private final transient ProtectedBlockQueue queue;
 
 
 	static class ProtectedBy
 	{
 		private transient int playerId = -1;
-		private transient Set<Integer> playerIds;
+		private transient int[] playerIds;
 
 		public void add(final int playerId)
 		{
@@ -68,14 +34,20 @@ public final class ProtectedBlockMemory implements IProtectedBlock
 			{
 				this.playerId = playerId;
 			}
-			else
+			else if (!contains(playerId))
 			{
 				if (playerIds == null)
 				{
-					playerIds = new HashSet<Integer>(4);
-					playerIds.add(this.playerId);
+					playerIds = new int[]
+					{
+						this.playerId, playerId
+					};
+				}
+				else
+				{
+					playerIds = Arrays.copyOf(playerIds, playerIds.length + 1);
+					playerIds[playerIds.length - 1] = playerId;
 				}
-				playerIds.add(playerId);
 			}
 		}
 
@@ -85,7 +57,14 @@ public final class ProtectedBlockMemory implements IProtectedBlock
 			{
 				return this.playerId == playerId;
 			}
-			return playerIds.contains(playerId);
+			for (int id : playerIds)
+			{
+				if (id == playerId)
+				{
+					return true;
+				}
+			}
+			return false;
 		}
 
 		public List<String> getPlayers(final List<String> playerNames)
@@ -97,9 +76,9 @@ public final class ProtectedBlockMemory implements IProtectedBlock
 			}
 			else
 			{
-				for (Integer integer : playerIds)
+				for (int id : playerIds)
 				{
-					list.add(playerNames.get(integer));
+					list.add(playerNames.get(id));
 				}
 			}
 			return list;
@@ -111,22 +90,36 @@ public final class ProtectedBlockMemory implements IProtectedBlock
 			{
 				return 1;
 			}
-			return playerIds.size();
+			return playerIds.length;
 		}
 	}
-	private final transient Map<ProtectedLocation, ProtectedBy> blocks = new HashMap<ProtectedLocation, ProtectedBy>();
 
 	public ProtectedBlockMemory(final IProtectedBlock storage, final Plugin plugin)
 	{
 		this.storage = storage;
-		this.plugin = plugin;
+		this.queue = new ProtectedBlockQueue(storage, plugin);
 		importProtections(storage.exportProtections());
+		queue.start();
+	}
+
+	private static long getChunkKey(final int x, final int z)
+	{
+		return ((long)(x >> 4) << 32) | ((z >> 4) & 0xFFFFFFFFL);
+	}
+
+	private static long getBlockKey(final int x, final int y, final int z)
+	{
+		return ((long)y << 8) | ((x & 15) << 4) | (z & 15);
 	}
 
 	@Override
 	public void clearProtections()
 	{
-		blocks.clear();
+		chunks.clear();
+		worlds.clear();
+		worldIds.clear();
+		playerNames.clear();
+		playerIds.clear();
 	}
 
 	@Override
@@ -134,30 +127,49 @@ public final class ProtectedBlockMemory implements IProtectedBlock
 	{
 		for (OwnedBlock ownedBlock : blocks)
 		{
-			final ProtectedLocation pl = new ProtectedLocation(ownedBlock, getWorldId(ownedBlock.world));
 			if (ownedBlock.playerName == null)
 			{
 				continue;
 			}
-			protectBlock(pl, ownedBlock.playerName);
+			protectBlock(getWorldId(ownedBlock.world), ownedBlock.x, ownedBlock.y, ownedBlock.z, ownedBlock.playerName);
 		}
 	}
 
 	@Override
 	public List<OwnedBlock> exportProtections()
 	{
-		final List<OwnedBlock> blockList = new ArrayList<OwnedBlock>(blocks.size());
-		for (Entry<ProtectedLocation, ProtectedBy> entry : blocks.entrySet())
+		final List<OwnedBlock> blockList = new ArrayList<OwnedBlock>();
+		for (int worldId = 0; worldId < chunks.size(); worldId++)
 		{
-			for (String name : entry.getValue().getPlayers(playerNames))
+			final LongHashMap<LongHashMap<ProtectedBy>> worldChunks = chunks.get(worldId);
+			for (int i = 0; i < worldChunks.capacity(); i++)
 			{
-				final OwnedBlock ob = new OwnedBlock(
-						entry.getKey().x,
-						entry.getKey().y,
-						entry.getKey().z,
-						worlds.get(entry.getKey().w),
-						name);
-				blockList.add(ob);
+				final LongHashMap<ProtectedBy> chunk = worldChunks.valueAt(i);
+				if (chunk == null)
+				{
+					continue;
+				}
+				final long chunkKey = worldChunks.keyAt(i);
+				final int chunkX = (int)(chunkKey >> 32) << 4;
+				final int chunkZ = (int)chunkKey << 4;
+				for (int j = 0; j < chunk.capacity(); j++)
+				{
+					final ProtectedBy pb = chunk.valueAt(j);
+					if (pb == null)
+					{
+						continue;
+					}
+					final long blockKey = chunk.keyAt(j);
+					for (String name : pb.getPlayers(playerNames))
+					{
+						blockList.add(new OwnedBlock(
+								chunkX | (int)((blockKey >> 4) & 15),
+								(int)(blockKey >> 8),
+								chunkZ | (int)(blockKey & 15),
+								worlds.get(worldId),
+								name));
+					}
+				}
 			}
 		}
 		return blockList;
@@ -166,86 +178,137 @@ public final class ProtectedBlockMemory implements IProtectedBlock
 	@Override
 	public void protectBlock(final Block block, final String playerName)
 	{
-		final ProtectedLocation pl = new ProtectedLocation(block, getWorldId(block.getWorld()));
-		protectBlock(pl, playerName);
-		plugin.getServer().getScheduler().scheduleAsyncDelayedTask(plugin, new Runnable()
-		{
-			@Override
-			public void run()
-			{
-				storage.protectBlock(block, playerName);
-			}
-		});
+		final String world = block.getWorld().getName();
+		protectBlock(getWorldId(world), block.getX(), block.getY(), block.getZ(), playerName);
+		queue.protectBlock(world, block.getX(), block.getY(), block.getZ(), playerName);
 	}
 
-	private void protectBlock(final ProtectedLocation pl, final String playerName)
+	private void protectBlock(final int worldId, final int x, final int y, final int z, final String playerName)
 	{
-		final int playerId = getPlayerId(playerName);
-		ProtectedBy pb = blocks.get(pl);
+		final LongHashMap<LongHashMap<ProtectedBy>> worldChunks = chunks.get(worldId);
+		final long chunkKey = getChunkKey(x, z);
+		LongHashMap<ProtectedBy> chunk = worldChunks.get(chunkKey);
+		if (chunk == null)
+		{
+			chunk = new LongHashMap<ProtectedBy>();
+			worldChunks.put(chunkKey, chunk);
+		}
+		final long blockKey = getBlockKey(x, y, z);
+		ProtectedBy pb = chunk.get(blockKey);
 		if (pb == null)
 		{
 			pb = new ProtectedBy();
-			blocks.put(pl, pb);
+			chunk.put(blockKey, pb);
+		}
+		pb.add(getPlayerId(playerName));
+	}
+
+	private ProtectedBy getProtectedBy(final Block block)
+	{
+		final Integer worldId = worldIds.get(block.getWorld().getName());
+		if (worldId == null)
+		{
+			return null;
+		}
+		final int x = block.getX();
+		final int z = block.getZ();
+		final LongHashMap<ProtectedBy> chunk = chunks.get(worldId).get(getChunkKey(x, z));
+		if (chunk == null)
+		{
+			return null;
 		}
-		pb.add(playerId);
+		return chunk.get(getBlockKey(x, block.getY(), z));
 	}
 
 	@Override
 	public boolean isProtected(final Block block, final String playerName)
 	{
-		final int playerId = getPlayerId(playerName);
-		final ProtectedLocation pl = new ProtectedLocation(block, getWorldId(block.getWorld()));
-		final ProtectedBy pb = blocks.get(pl);
-		return !pb.contains(playerId);
+		final ProtectedBy pb = getProtectedBy(block);
+		if (pb == null)
+		{
+			return false;
+		}
+		final Integer playerId = playerIds.get(playerName);
+		return playerId == null || !pb.contains(playerId);
 	}
 
 	@Override
 	public List<String> getOwners(final Block block)
 	{
-		ProtectedLocation pl = new ProtectedLocation(block, getWorldId(block.getWorld()));
-		ProtectedBy pb = blocks.get(pl);
+		final ProtectedBy pb = getProtectedBy(block);
+		if (pb == null)
+		{
+			return new ArrayList<String>();
+		}
 		return pb.getPlayers(playerNames);
 	}
 
 	@Override
 	public int unprotectBlock(final Block block)
 	{
-		final ProtectedLocation pl = new ProtectedLocation(block, getWorldId(block.getWorld()));
-		final ProtectedBy pb = blocks.remove(pl);
-		plugin.getServer().getScheduler().scheduleAsyncDelayedTask(plugin, new Runnable()
+		final String world = block.getWorld().getName();
+		queue.unprotectBlock(world, block.getX(), block.getY(), block.getZ());
+		return unprotectBlock(world, block.getX(), block.getY(), block.getZ());
+	}
+
+	private int unprotectBlock(final String world, final int x, final int y, final int z)
+	{
+		final Integer worldId = worldIds.get(world);
+		if (worldId == null)
 		{
-			@Override
-			public void run()
-			{
-				storage.unprotectBlock(block);
-			}
-		});
-		return pb.size();
+			return 0;
+		}
+		final LongHashMap<LongHashMap<ProtectedBy>> worldChunks = chunks.get(worldId);
+		final long chunkKey = getChunkKey(x, z);
+		final LongHashMap<ProtectedBy> chunk = worldChunks.get(chunkKey);
+		if (chunk == null)
+		{
+			return 0;
+		}
+		final ProtectedBy pb = chunk.remove(getBlockKey(x, y, z));
+		if (chunk.isEmpty())
+		{
+			worldChunks.remove(chunkKey);
+		}
+		return pb == null ? 0 : pb.size();
 	}
 
-	private int getPlayerId(final String playername)
+	@Override
+	public void applyChanges(final List<OwnedBlock> removed, final List<OwnedBlock> added)
 	{
-		int id = playerNames.indexOf(playername);
-		if (id < 0)
+		for (OwnedBlock ownedBlock : removed)
 		{
-			playerNames.add(playername);
-			id = playerNames.indexOf(playername);
+			unprotectBlock(ownedBlock.world, ownedBlock.x, ownedBlock.y, ownedBlock.z);
+			queue.unprotectBlock(ownedBlock.world, ownedBlock.x, ownedBlock.y, ownedBlock.z);
+		}
+		for (OwnedBlock ownedBlock : added)
+		{
+			protectBlock(getWorldId(ownedBlock.world), ownedBlock.x, ownedBlock.y, ownedBlock.z, ownedBlock.playerName);
+			queue.protectBlock(ownedBlock.world, ownedBlock.x, ownedBlock.y, ownedBlock.z, ownedBlock.playerName);
 		}
-		return id;
 	}
 
-	private int getWorldId(final World world)
+	private int getPlayerId(final String playerName)
 	{
-		return getWorldId(world.getName());
+		Integer id = playerIds.get(playerName);
+		if (id == null)
+		{
+			id = playerNames.size();
+			playerNames.add(playerName);
+			playerIds.put(playerName, id);
+		}
+		return id;
 	}
 
 	private int getWorldId(final String name)
 	{
-		int id = worlds.indexOf(name);
-		if (id < 0)
+		Integer id = worldIds.get(name);
+		if (id == null)
 		{
+			id = worlds.size();
 			worlds.add(name);
-			id = worlds.indexOf(name);
+			worldIds.put(name, id);
+			chunks.add(new LongHashMap<LongHashMap<ProtectedBy>>());
 		}
 		return id;
 	}
@@ -253,6 +316,7 @@ public final class ProtectedBlockMemory implements IProtectedBlock
 	@Override
 	public void onPluginDeactivation()
 	{
+		queue.stop();
 		storage.onPluginDeactivation();
 	}
 }
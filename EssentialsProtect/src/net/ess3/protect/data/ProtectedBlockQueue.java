@@ -0,0 +1,192 @@
+package net.ess3.protect.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bukkit.plugin.Plugin;
+
+
+/**
+ * Collects protection changes and writes them to the storage in batches.
+ *
+ * Changes of the same block are merged, an unprotect drops all protections queued before it.
+ * The queue is written every few seconds, or earlier if it gets too long.
+ */
+final class ProtectedBlockQueue implements Runnable
+{
+	private static final long INTERVAL = 100;
+	private static final int THRESHOLD = 500;
+	private final transient IProtectedBlock storage;
+	private final transient Plugin plugin;
+	private final transient Object flushLock = new Object();
+	private final transient AtomicBoolean flushScheduled = new AtomicBoolean(false);
+	private transient Map<Change, Change> pending = new LinkedHashMap<Change, Change>();
+	private transient int taskId = -1;
+	private transient boolean stopped = false;
+
+
+	private static final class Change
+	{
+		private final transient String world;
+		private final transient int x;
+		private final transient int y;
+		private final transient int z;
+		private transient boolean unprotect = false;
+		private final transient List<String> playerNames = new ArrayList<String>(1);
+
+		public Change(final String world, final int x, final int y, final int z)
+		{
+			this.world = world;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+		}
+
+		@Override
+		public boolean equals(final Object object)
+		{
+			if (object instanceof Change)
+			{
+				final Change change = (Change)object;
+				return x == change.x && y == change.y && z == change.z && world.equals(change.world);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = world.hashCode();
+			hash = 31 * hash + x;
+			hash = 31 * hash + y;
+			hash = 31 * hash + z;
+			return hash;
+		}
+	}
+
+	public ProtectedBlockQueue(final IProtectedBlock storage, final Plugin plugin)
+	{
+		this.storage = storage;
+		this.plugin = plugin;
+	}
+
+	public void start()
+	{
+		taskId = plugin.getServer().getScheduler().scheduleAsyncRepeatingTask(plugin, this, INTERVAL, INTERVAL);
+	}
+
+	public void protectBlock(final String world, final int x, final int y, final int z, final String playerName)
+	{
+		final boolean full;
+		synchronized (this)
+		{
+			final Change change = getChange(world, x, y, z);
+			if (!change.playerNames.contains(playerName))
+			{
+				change.playerNames.add(playerName);
+			}
+			full = pending.size() >= THRESHOLD;
+		}
+		checkSize(full);
+	}
+
+	public void unprotectBlock(final String world, final int x, final int y, final int z)
+	{
+		final boolean full;
+		synchronized (this)
+		{
+			final Change change = getChange(world, x, y, z);
+			change.unprotect = true;
+			change.playerNames.clear();
+			full = pending.size() >= THRESHOLD;
+		}
+		checkSize(full);
+	}
+
+	private Change getChange(final String world, final int x, final int y, final int z)
+	{
+		final Change key = new Change(world, x, y, z);
+		Change change = pending.get(key);
+		if (change == null)
+		{
+			pending.put(key, key);
+			change = key;
+		}
+		return change;
+	}
+
+	private void checkSize(final boolean full)
+	{
+		if (full && flushScheduled.compareAndSet(false, true))
+		{
+			synchronized (this)
+			{
+				if (stopped)
+				{
+					return;
+				}
+			}
+			plugin.getServer().getScheduler().scheduleAsyncDelayedTask(plugin, this);
+		}
+	}
+
+	@Override
+	public void run()
+	{
+		flushScheduled.set(false);
+		flush();
+	}
+
+	/**
+	 * Writes all queued changes. Concurrent flushes are serialized, so the changes keep their order.
+	 */
+	public void flush()
+	{
+		synchronized (flushLock)
+		{
+			final Map<Change, Change> changes;
+			synchronized (this)
+			{
+				if (pending.isEmpty())
+				{
+					return;
+				}
+				changes = pending;
+				pending = new LinkedHashMap<Change, Change>();
+			}
+			final List<OwnedBlock> removed = new ArrayList<OwnedBlock>();
+			final List<OwnedBlock> added = new ArrayList<OwnedBlock>();
+			for (Change change : changes.keySet())
+			{
+				if (change.unprotect)
+				{
+					removed.add(new OwnedBlock(change.x, change.y, change.z, change.world, null));
+				}
+				for (String playerName : change.playerNames)
+				{
+					added.add(new OwnedBlock(change.x, change.y, change.z, change.world, playerName));
+				}
+			}
+			storage.applyChanges(removed, added);
+		}
+	}
+
+	/**
+	 * Stops the timer and writes the remaining changes in the current thread.
+	 */
+	public void stop()
+	{
+		synchronized (this)
+		{
+			stopped = true;
+		}
+		if (taskId != -1)
+		{
+			plugin.getServer().getScheduler().cancelTask(taskId);
+			taskId = -1;
+		}
+		flush();
+	}
+}
@@ -32,13 +32,13 @@ public class EssentialsSignsPlugin extends JavaPlugin implements ISignsPlugin
 		}
 
 		final SignBlockListener signBlockListener = new SignBlockListener(ess, this);
-		pluginManager.registerEvents(signBlockListener, this);
+		ess.getTimings().registerEvents(signBlockListener, this);
 
 		final SignPlayerListener signPlayerListener = new SignPlayerListener(ess, this);
-		pluginManager.registerEvents(signPlayerListener, this);
+		ess.getTimings().registerEvents(signPlayerListener, this);
 
 		final SignEntityListener signEntityListener = new SignEntityListener(ess, this);
-		pluginManager.registerEvents(signEntityListener, this);
+		ess.getTimings().registerEvents(signEntityListener, this);
 
 		config = new SignsConfigHolder(ess, this);
 	}